@@ -41,6 +41,7 @@ public class GameController {
      */
     public void startGame(int size, String aiLevel) {
         commandManager.clear();
+        model.cancelPondering();
 
         try {
             model.startGame(size);
@@ -49,6 +50,7 @@ public class GameController {
             if (mainView != null) {
                 mainView.initBoard(model.getBoardSize());
             }
+            model.startPondering();
         } catch (IllegalArgumentException e) {
             System.err.println("Invalid game parameters: " + e.getMessage());
         }
@@ -59,6 +61,7 @@ public class GameController {
      */
     public void forfeitGame() {
         try {
+            model.cancelPondering();
             model.forfeitGame();
             commandManager.clear();
         } catch (Exception e) {
@@ -140,19 +143,25 @@ public class GameController {
         }
     }
 
+    /**
+     * Lets the bot answer, then ponders on the human's next turn while the human thinks.
+     * The bot's strategy stops the pondering itself and reuses it for its answer.
+     */
     private void executeAITurn() {
         try {
             model.executeAutomaticMove(commandManager);
+            model.startPondering();
         } catch (Exception e) {
             System.err.println("Error executing AI turn: " + e.getMessage());
         }
     }
 
     /**
-     * Undoes the last command.
+     * Undoes the last command. Pondering on the previous position is cancelled.
      */
     public void undo() {
         try {
+            model.cancelPondering();
             commandManager.undo();
         } catch (Exception e) {
             System.err.println("Error undoing command: " + e.getMessage());
@@ -160,10 +169,11 @@ public class GameController {
     }
 
     /**
-     * Redoes the last undone command.
+     * Redoes the last undone command. Pondering on the previous position is cancelled.
      */
     public void redo() {
         try {
+            model.cancelPondering();
             commandManager.redo();
         } catch (Exception e) {
             System.err.println("Error redoing command: " + e.getMessage());
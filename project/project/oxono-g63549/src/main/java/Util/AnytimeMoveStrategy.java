@@ -0,0 +1,35 @@
+package Util;
+
+import model.GameModel;
+import model.MoveCodec;
+
+/**
+ * A strategy whose search can be given a time budget and cut short at any moment,
+ * always keeping a move ready.
+ */
+public interface AnytimeMoveStrategy extends MoveStrategy {
+    /**
+     * Computes the next move within a time budget.
+     * The budget replaces the strategy's own time limit for this call.
+     *
+     * @param gameModel       The game model.
+     * @param timeLimitMillis The time budget, in milliseconds.
+     * @return The best packed move found in time (see {@link MoveCodec}), or MoveCodec.NO_MOVE.
+     */
+    int calculatePackedMove(GameModel gameModel, long timeLimitMillis);
+
+    /**
+     * Asks the running search, if any, to return its best move now.
+     * The request holds for the rest of the move, and for the next one if no move is
+     * running, until {@link #clearStop()}: a stop sent between two searches of a move is
+     * not lost. Safe to call from any thread.
+     */
+    void stop();
+
+    /**
+     * Forgets a stop request. The caller timing the moves does it before each move; a
+     * strategy never does it by itself, so one of its searches cannot wipe a stop meant
+     * for the whole move.
+     */
+    void clearStop();
+}
@@ -2,6 +2,8 @@ package Util;
 
 import model.GameModel;
 import model.Move;
+import model.MoveCodec;
+import model.SearchState;
 
 public interface MoveStrategy {
     /**
@@ -12,4 +14,25 @@ public interface MoveStrategy {
      */
     Move calculateMove(GameModel gameModel);
     void play(GameModel gameModel);
+
+    /**
+     * Computes the next move in its packed form (see {@link MoveCodec}).
+     *
+     * @param gameModel The game model.
+     * @return The packed move, or MoveCodec.NO_MOVE.
+     */
+    default int calculatePackedMove(GameModel gameModel) {
+        return MoveCodec.encode(calculateMove(gameModel), gameModel.getBoardSize());
+    }
+
+    /**
+     * Checks if the strategy answers a position exactly, from a table or a solve, so a
+     * strategy wrapping it has nothing to look for first.
+     *
+     * @param state The position.
+     * @return true if the move played is proven best; false by default.
+     */
+    default boolean answersExactly(SearchState state) {
+        return false;
+    }
 }
\ No newline at end of file
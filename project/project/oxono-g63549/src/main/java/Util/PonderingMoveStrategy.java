@@ -0,0 +1,39 @@
+package Util;
+
+import model.GameModel;
+
+/**
+ * A strategy that can keep searching in the background while the opponent thinks.
+ * The next call to calculatePackedMove stops the background search and reuses its
+ * work: an answer ready for the position reached, or the entries it stored.
+ */
+public interface PonderingMoveStrategy extends AnytimeMoveStrategy {
+    /**
+     * Starts searching the current position, with the opponent to move, on a
+     * background thread. A previous background search is cancelled first.
+     *
+     * @param gameModel The game model, read once before this method returns.
+     */
+    void ponder(GameModel gameModel);
+
+    /**
+     * Stops the background search, if any, and keeps the reply it prepared, so a
+     * wrapper can free the core before its own searches. Blocks until the search is over.
+     */
+    void stopPondering();
+
+    /**
+     * Checks if the background search prepared a reply for the current position, which
+     * the next call to calculatePackedMove plays at once.
+     *
+     * @param gameModel The game model.
+     * @return true on a ponder hit
+     */
+    boolean isPonderHit(GameModel gameModel);
+
+    /**
+     * Stops the background search, if any, and forgets its result, for instance
+     * after an undo or when a new game starts. Blocks until the search is over.
+     */
+    void cancelPondering();
+}
@@ -52,7 +52,8 @@ public class MenuView extends HBox {
         boardSizeField.setStyle(getInputStyle());
 
         aiLevelCombo = new ComboBox<>();
-        aiLevelCombo.getItems().addAll("Aléatoire (Niveau 0)", "Intelligent (Niveau 1)");
+        aiLevelCombo.getItems().addAll("Aléatoire (Niveau 0)", "Intelligent (Niveau 1)", "Alpha-bêta (Niveau 2)", "MCTS (Niveau 3)",
+                "Parfait 4x4 (Niveau 4)");
         aiLevelCombo.setValue("Aléatoire (Niveau 0)");
         aiLevelCombo.setStyle(getInputStyle());
 
@@ -144,7 +145,13 @@ public class MenuView extends HBox {
 
 
     private String convertToAILevel(String displayText) {
-        if (displayText.contains("Intelligent") || displayText.contains("Niveau 1")) {
+        if (displayText.contains("Niveau 4")) {
+            return "level4";
+        } else if (displayText.contains("Niveau 3")) {
+            return "level3";
+        } else if (displayText.contains("Niveau 2")) {
+            return "level2";
+        } else if (displayText.contains("Intelligent") || displayText.contains("Niveau 1")) {
             return "level1";
         } else {
             return "random";
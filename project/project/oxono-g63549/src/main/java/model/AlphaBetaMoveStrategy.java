@@ -0,0 +1,296 @@
+package model;
+
+import Util.PonderingMoveStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bot that looks several turns ahead with an {@link AlphaBetaSearch}.
+ * Every call searches a snapshot of the game, deepening until the depth or the time
+ * limit is reached, and keeps the principal variation of the last search so it can
+ * be shown or logged. Its transposition table lives from one move to the next and
+ * can be handed to other strategies.
+ * With more than one thread, the search runs in Lazy SMP mode (see {@link LazySmpSearch});
+ * {@link #close()} then releases the helper threads.
+ * While the opponent thinks, the strategy can ponder: it searches the opponent's
+ * position in the background, filling the table. If the opponent then plays the move
+ * the background search expected, and that search went at least as deep as the last
+ * regular one, its prepared reply is played at once.
+ */
+public class AlphaBetaMoveStrategy implements PonderingMoveStrategy, AutoCloseable {
+    /** Default time budget of a move, in milliseconds. */
+    public static final long DEFAULT_TIME_LIMIT = 1000;
+
+    /** Background thread shared by the pondering searches of every strategy. */
+    private static final ExecutorService PONDERING = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-ponder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int maxDepth;
+    private final long timeLimitMillis;
+    private final TranspositionTable table;
+    private final LazySmpSearch search;
+
+    private int[] principalVariation = new int[0];
+    private int lastDepth;
+    private int lastScore;
+    private long lastNodes;
+    private int lastBoardSize;
+    private boolean lastPonderHit;
+
+    private SearchState ponderState;
+    private AlphaBetaSearch ponderSearch;
+    private Future<?> ponderTask;
+    /** Key of the position after the expected opponent move, and the reply prepared for it. */
+    private long ponderKey;
+    private int[] ponderLine = new int[0];
+    private int ponderDepth;
+    private int ponderScore;
+
+    public AlphaBetaMoveStrategy() {
+        this(AlphaBetaSearch.MAX_DEPTH, DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Creates the strategy with explicit limits.
+     *
+     * @param maxDepth        the deepest iteration, in turns
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     */
+    public AlphaBetaMoveStrategy(int maxDepth, long timeLimitMillis) {
+        this(maxDepth, timeLimitMillis, new TranspositionTable());
+    }
+
+    /**
+     * Creates the strategy with explicit limits and a transposition table that may be
+     * shared with other strategies.
+     *
+     * @param maxDepth        the deepest iteration, in turns
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     * @param table           the transposition table
+     */
+    public AlphaBetaMoveStrategy(int maxDepth, long timeLimitMillis, TranspositionTable table) {
+        this(maxDepth, timeLimitMillis, table, 1);
+    }
+
+    /**
+     * Creates the strategy with explicit limits, a transposition table and a number
+     * of searching threads.
+     *
+     * @param maxDepth        the deepest iteration, in turns
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     * @param table           the transposition table, shared by the threads
+     * @param threads         the number of searching threads
+     */
+    public AlphaBetaMoveStrategy(int maxDepth, long timeLimitMillis, TranspositionTable table, int threads) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+        this.timeLimitMillis = timeLimitMillis;
+        this.table = table;
+        this.search = new LazySmpSearch(threads, table);
+    }
+
+    @Override
+    public Move calculateMove(GameModel gameModel) {
+        return MoveCodec.decode(calculatePackedMove(gameModel), gameModel.getBoardSize());
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel) {
+        return calculatePackedMove(gameModel, timeLimitMillis);
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+        stopPondering();
+        SearchState state = gameModel.createSearchState();
+        lastBoardSize = gameModel.getBoardSize();
+        if (isPonderHit(state.getKey())) {
+            principalVariation = ponderLine;
+            lastDepth = ponderDepth;
+            lastScore = ponderScore;
+            lastNodes = 0;
+            lastPonderHit = true;
+            ponderLine = new int[0];
+            return principalVariation[0];
+        }
+        ponderLine = new int[0];
+        lastPonderHit = false;
+
+        table.newSearch();
+        int move = search.search(state, maxDepth, timeLimitMillis);
+
+        AlphaBetaSearch main = search.getMainSearch();
+        principalVariation = main.getPrincipalVariation();
+        lastDepth = main.getCompletedDepth();
+        lastScore = main.getScore();
+        lastNodes = search.getNodes();
+        return move;
+    }
+
+    @Override
+    public void ponder(GameModel gameModel) {
+        cancelPondering();
+        SearchState state = gameModel.createSearchState();
+        if (state.getPhase() != TurnPhase.MOVE_TOTEM) {
+            return;
+        }
+        table.newSearch();
+        AlphaBetaSearch background = new AlphaBetaSearch(state, table);
+        ponderState = state;
+        ponderSearch = background;
+        ponderTask = PONDERING.submit(() -> background.search(maxDepth, AlphaBetaSearch.NO_TIME_LIMIT));
+    }
+
+    @Override
+    public void cancelPondering() {
+        stopPondering();
+        ponderLine = new int[0];
+    }
+
+    @Override
+    public boolean isPonderHit(GameModel gameModel) {
+        return isPonderHit(gameModel.getPositionKey());
+    }
+
+    /**
+     * Checks if the prepared reply answers a position, from a search at least as deep
+     * as the last regular one.
+     */
+    private boolean isPonderHit(long key) {
+        return ponderLine.length > 0 && key == ponderKey && ponderDepth >= Math.max(lastDepth, 1);
+    }
+
+    /**
+     * Stops the background search, if any, and keeps the reply it prepared to the
+     * opponent move it expects.
+     */
+    @Override
+    public void stopPondering() {
+        if (ponderSearch == null) {
+            return;
+        }
+        ponderSearch.stop();
+        try {
+            ponderTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pondering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Pondering failed", e.getCause());
+        } finally {
+            ponderTask = null;
+        }
+
+        int[] line = ponderSearch.getPrincipalVariation();
+        if (line.length >= 2) {
+            ponderState.make(line[0]);
+            ponderKey = ponderState.getKey();
+            ponderState.unmake(line[0]);
+            ponderLine = Arrays.copyOfRange(line, 1, line.length);
+            ponderDepth = ponderSearch.getCompletedDepth() - 1;
+            // One turn closer to the end of the game than the opponent's position.
+            ponderScore = -ponderSearch.getScore();
+            if (AlphaBetaSearch.isDecisive(ponderScore)) {
+                ponderScore += ponderScore > 0 ? 1 : -1;
+            }
+        }
+        ponderSearch = null;
+        ponderState = null;
+    }
+
+    /**
+     * Returns the opponent move the running background search expects so far.
+     *
+     * @return the packed move, or MoveCodec.NO_MOVE if nothing is being pondered
+     */
+    public int getExpectedMove() {
+        AlphaBetaSearch background = ponderSearch;
+        if (background == null) {
+            return MoveCodec.NO_MOVE;
+        }
+        int[] line = background.getPrincipalVariation();
+        return line.length == 0 ? MoveCodec.NO_MOVE : line[0];
+    }
+
+    /**
+     * Checks if a background search is running or waits to be stopped.
+     *
+     * @return true between {@link #ponder(GameModel)} and the next stop or cancel
+     */
+    public boolean isPondering() {
+        return ponderSearch != null;
+    }
+
+    /**
+     * Returns the depth the running background search has completed so far.
+     *
+     * @return the depth, or 0 if nothing is being pondered
+     */
+    public int getPonderDepth() {
+        AlphaBetaSearch background = ponderSearch;
+        return background == null ? 0 : background.getCompletedDepth();
+    }
+
+    @Override
+    public void play(GameModel gameModel) {
+    }
+
+    @Override
+    public void stop() {
+        search.stop();
+    }
+
+    @Override
+    public void clearStop() {
+        search.clearStop();
+    }
+
+    /**
+     * Returns the principal variation of the last search.
+     *
+     * @return the packed moves, the move played first
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Describes the last search: depth, score, nodes, table usage and principal variation.
+     *
+     * @return the text of the report
+     */
+    public String getSearchReport() {
+        StringBuilder report = new StringBuilder()
+                .append(lastPonderHit ? "ponder hit " : "")
+                .append("depth ").append(lastDepth)
+                .append(" score ").append(lastScore)
+                .append(" nodes ").append(lastNodes)
+                .append(String.format(" tt hits %.1f%% fill %.1f%%", 100 * table.getHitRate(), 100 * table.getFillRate()))
+                .append(" pv");
+        for (int move : principalVariation) {
+            report.append(' ').append(MoveCodec.toString(move, lastBoardSize));
+        }
+        return report.toString();
+    }
+
+    public TranspositionTable getTranspositionTable() { return table; }
+    public int getLastDepth() { return lastDepth; }
+    public int getLastScore() { return lastScore; }
+    public long getLastNodes() { return lastNodes; }
+    public boolean isLastPonderHit() { return lastPonderHit; }
+
+    @Override
+    public void close() {
+        cancelPondering();
+        search.close();
+    }
+}
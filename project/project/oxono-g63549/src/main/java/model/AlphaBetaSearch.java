@@ -0,0 +1,313 @@
+package model;
+
+/**
+ * Negamax search with alpha-beta pruning and iterative deepening over full turns.
+ * One instance searches one {@link SearchState}; it keeps its move lists and
+ * principal variation tables between iterations, so it never allocates while searching.
+ * With a {@link TranspositionTable}, positions reached through different move orders
+ * are searched once and the stored best move is tried first. Positions at the horizon
+ * are scored by the {@link Evaluator} the state keeps up to date, and the moves of a
+ * node are tried in the order given by a {@link MoveOrderer}.
+ * Scores are seen from the side to move; a win found n turns ahead scores
+ * {@code WIN_SCORE - n}, so shorter wins are preferred and longer losses delayed.
+ */
+public class AlphaBetaSearch {
+    /** Score of a win on the current turn. */
+    public static final int WIN_SCORE = 1_000_000;
+    /** Deepest iteration the search can run. */
+    public static final int MAX_DEPTH = 64;
+    /** Time limit of a search that only ends at its depth limit or when stopped. */
+    public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+    /**
+     * The clock and the stop request are read once every CHECK_INTERVAL + 1 nodes, about
+     * a millisecond on a 10x10 board: well within TimeControl.MOVE_OVERHEAD.
+     */
+    private static final int CHECK_INTERVAL = 255;
+
+    private final SearchState state;
+    private final TranspositionTable table;
+    private final MoveOrderer orderer;
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH + 1];
+    private final int[][] pvTable = new int[MAX_DEPTH + 1][MAX_DEPTH + 1];
+    private final int[] pvLength = new int[MAX_DEPTH + 1];
+
+    private volatile int[] principalVariation = new int[0];
+    private boolean followPv;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+    private volatile int completedDepth;
+    private int score;
+
+    /**
+     * Creates a search on a position, without a transposition table.
+     * The state is played on and restored.
+     *
+     * @param state the root position
+     */
+    public AlphaBetaSearch(SearchState state) {
+        this(state, null);
+    }
+
+    /**
+     * Creates a search on a position, with the default move ordering.
+     * The state is played on and restored.
+     *
+     * @param state the root position
+     * @param table the transposition table to use, or null
+     */
+    public AlphaBetaSearch(SearchState state, TranspositionTable table) {
+        this(state, table, new MoveOrderer());
+    }
+
+    /**
+     * Creates a search on a position. The state is played on and restored.
+     *
+     * @param state   the root position
+     * @param table   the transposition table to use, or null
+     * @param orderer the move ordering, or null to try moves in generation order
+     */
+    public AlphaBetaSearch(SearchState state, TranspositionTable table, MoveOrderer orderer) {
+        this.state = state;
+        this.table = table;
+        this.orderer = orderer;
+        for (int i = 0; i <= MAX_DEPTH; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the root with increasing depths until the depth limit or the time
+     * limit is reached. The first iteration always completes; a later iteration
+     * interrupted by the clock is thrown away.
+     *
+     * @param maxDepth        the deepest iteration
+     * @param timeLimitMillis the time budget, in milliseconds
+     * @return the best packed move, or MoveCodec.NO_MOVE if the side to move has no move
+     */
+    public int search(int maxDepth, long timeLimitMillis) {
+        return search(1, maxDepth, timeLimitMillis);
+    }
+
+    /**
+     * Searches the root with increasing depths, starting from a given depth.
+     * Helpers of a parallel search start at different depths so they do not all
+     * search the same tree at the same time.
+     *
+     * @param startDepth      the first iteration
+     * @param maxDepth        the deepest iteration
+     * @param timeLimitMillis the time budget, in milliseconds, or NO_TIME_LIMIT
+     * @return the best packed move, or MoveCodec.NO_MOVE if the side to move has no move;
+     *         a search stopped before its first iteration returns the first legal move
+     */
+    public int search(int startDepth, int maxDepth, long timeLimitMillis) {
+        nodes = 0;
+        stopped = false;
+        completedDepth = 0;
+        score = 0;
+        principalVariation = new int[0];
+        deadline = TimeControl.deadline(System.nanoTime(), timeLimitMillis);
+
+        int limit = Math.min(maxDepth, MAX_DEPTH);
+        for (int depth = Math.max(startDepth, 1); depth <= limit && !stopRequested; depth++) {
+            followPv = true;
+            int value = negamax(depth, -INFINITY, INFINITY, 0);
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            score = value;
+            int[] line = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, line, 0, line.length);
+            principalVariation = line;
+            if (isDecisive(value) || line.length == 0) {
+                break;
+            }
+        }
+        if (principalVariation.length == 0 && (stopped || stopRequested)) {
+            MoveList moves = moveLists[0];
+            moves.clear();
+            state.generateMoves(moves);
+            return moves.isEmpty() ? MoveCodec.NO_MOVE : moves.get(0);
+        }
+        return principalVariation.length == 0 ? MoveCodec.NO_MOVE : principalVariation[0];
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if ((++nodes & CHECK_INTERVAL) == 0
+                && (stopRequested || completedDepth > 0 && System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (depth == 0) {
+            return state.evaluate();
+        }
+
+        long key = 0;
+        int tableMove = MoveCodec.NO_MOVE;
+        if (table != null) {
+            key = state.getKey();
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int value = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER_BOUND && value >= beta)
+                            || (bound == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                        return value;
+                    }
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        state.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        int pvMove = MoveCodec.NO_MOVE;
+        if (followPv) {
+            followPv = ply < principalVariation.length && moves.contains(principalVariation[ply]);
+            if (followPv) {
+                pvMove = principalVariation[ply];
+            }
+        }
+        if (orderer != null) {
+            orderer.score(state, moves, ply, pvMove, tableMove);
+        } else {
+            if (tableMove != MoveCodec.NO_MOVE) {
+                moveToFront(moves, tableMove);
+            }
+            if (pvMove != MoveCodec.NO_MOVE) {
+                moveToFront(moves, pvMove);
+            }
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = MoveCodec.NO_MOVE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = orderer != null ? orderer.pick(moves, ply, i) : moves.get(i);
+            int value;
+            boolean won = state.make(move);
+            if (won) {
+                pvLength[ply + 1] = ply + 1;
+                value = WIN_SCORE - ply - 1;
+            } else {
+                value = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            }
+            state.unmake(move);
+            followPv = false;
+            if (stopped) {
+                return 0;
+            }
+
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    pvTable[ply][ply] = move;
+                    System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+                    pvLength[ply] = pvLength[ply + 1];
+                    if (alpha >= beta) {
+                        if (orderer != null && !won) {
+                            orderer.recordCutoff(move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (table != null) {
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, depth, bound, toTable(best, ply), bestMove);
+        }
+        return best;
+    }
+
+    /**
+     * Moves a move to the front of the list.
+     *
+     * @return true if the move was in the list
+     */
+    private static boolean moveToFront(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                moves.swap(0, i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts a win or loss score from distance to the root to distance to the node,
+     * so it stays right when the position is met again at another ply.
+     */
+    static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) {
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a stored score back to distance to the root.
+     */
+    static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) {
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Asks the search to stop as soon as possible, from any thread.
+     * The result of the last completed iteration is kept, and the search stays stopped.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Checks if a score announces a forced win or loss.
+     *
+     * @param score the score
+     * @return true if the score comes from a finished game
+     */
+    public static boolean isDecisive(int score) {
+        return Math.abs(score) >= WIN_SCORE - MAX_DEPTH;
+    }
+
+    /**
+     * Returns the principal variation of the last completed iteration.
+     * It can be read from another thread while the search runs.
+     *
+     * @return the packed moves, best line first
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    public int getCompletedDepth() { return completedDepth; }
+    public int getScore() { return score; }
+    public long getNodes() { return nodes; }
+}
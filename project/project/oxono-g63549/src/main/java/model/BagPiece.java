@@ -1,28 +1,30 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Bag of tokens of one player.
+ * Tokens of the same color and symbol are interchangeable, so the bag only counts them
+ * per symbol and hands out the shared {@link Token#of(Colors, Symbol)} instances.
+ * The piece returned by {@link #removePiece(Symbol)} is therefore the same instance
+ * that is later put back with {@link #addPiece(Piece)} on undo.
+ */
 public class BagPiece {
-    private List<Piece> bagPiece;
+    private static final int TOKENS_PER_SYMBOL = 8;
+
+    private final Colors colors;
+    private int xCount;
+    private int oCount;
+    private long zobristKey;
 
     public BagPiece(Colors colors) {
-        bagPiece = new ArrayList<>(16);
-        for (int i = 0; i < 8; i++) {
-            bagPiece.add(new Token(colors, Symbol.O));
-            bagPiece.add(new Token(colors, Symbol.X));
-        }
+        this.colors = colors;
+        this.xCount = TOKENS_PER_SYMBOL;
+        this.oCount = TOKENS_PER_SYMBOL;
+        this.zobristKey = Zobrist.bagKey(colors, Symbol.X, xCount) ^ Zobrist.bagKey(colors, Symbol.O, oCount);
     }
 
     
     public int countSymbol(Symbol symbol) {
-        int count = 0;
-        for (Piece p : bagPiece) {
-            if (p.getSymbol() == symbol) {
-                count++;
-            }
-        }
-        return count;
+        return symbol == Symbol.X ? xCount : oCount;
     }
     /**
      * Removes and returns a piece with the specified symbol.
@@ -30,13 +32,12 @@ public class BagPiece {
      * @return the removed piece, or null if no piece with that symbol exists
      */
     public Piece removePiece(Symbol symbol) {
-        for (int i = 0; i < bagPiece.size(); i++) {
-            Piece piece = bagPiece.get(i);
-            if (piece.getSymbol() == symbol) {
-                return bagPiece.remove(i);
-            }
+        int count = countSymbol(symbol);
+        if (count <= 0) {
+            return null;
         }
-        return null;
+        setCount(symbol, count - 1);
+        return Token.of(colors, symbol);
     }
 
 
@@ -45,17 +46,43 @@ public class BagPiece {
      * Returns the total number of pieces remaining.
      */
     public int size() {
-        return bagPiece.size();
+        return xCount + oCount;
     }
 
     /**
      * Checks if the bag is empty.
      */
     public boolean isEmpty() {
-        return bagPiece.isEmpty();
+        return size() == 0;
     }
+    /**
+     * Puts a token back in the bag.
+     * @param piece the token, of the color of the bag owner
+     * @throws IllegalArgumentException if the piece is not a token of the bag owner
+     */
     public void addPiece(Piece piece) {
-        bagPiece.add(piece);
+        if (!(piece instanceof Token) || piece.getColor() != colors) {
+            throw new IllegalArgumentException("Only " + colors + " tokens go in this bag, got: " + piece);
+        }
+        setCount(piece.getSymbol(), countSymbol(piece.getSymbol()) + 1);
+    }
+
+    private void setCount(Symbol symbol, int count) {
+        zobristKey ^= Zobrist.bagKey(colors, symbol, countSymbol(symbol)) ^ Zobrist.bagKey(colors, symbol, count);
+        if (symbol == Symbol.X) {
+            xCount = count;
+        } else {
+            oCount = count;
+        }
+    }
+
+    /**
+     * Returns the Zobrist key of the bag content, updated on every add and remove.
+     *
+     * @return the key mixing the number of X and O tokens left
+     */
+    public long getZobristKey() {
+        return zobristKey;
     }
 
 
@@ -3,9 +3,54 @@ package model;
 import java.util.List;
 
 
+/**
+ * Game board backed by bitboards.
+ * Cells are indexed row by row ({@code x * size + y}) and every set of cells
+ * (occupancy, totems, token colors, token symbols) is packed into two {@code long}
+ * words, which is enough for the largest 10x10 board.
+ * The {@link Piece} objects are kept alongside the bitboards so the Piece-based API
+ * used by the views and the commands keeps working.
+ */
 public class Board {
+    /** Number of {@code long} words of a bitboard. */
+    public static final int WORDS = 2;
+
     private int size;
-    private Piece[][] board;
+    private BoardGeometry geometry;
+    private Piece[] cells;
+
+    private final long[] occupied = new long[WORDS];
+    private final long[] totems = new long[WORDS];
+    private final long[] pinkTokens = new long[WORDS];
+    private final long[] blackTokens = new long[WORDS];
+    private final long[] xTokens = new long[WORDS];
+    private final long[] oTokens = new long[WORDS];
+    private long zobristKey;
+    private final int[] totemCells = {-1, -1};
+    private int emptyCells;
+
+    /** Shared immutable positions of every cell, per board size. */
+    private static final Position[][] POSITIONS = new Position[11][];
+
+    static {
+        for (int size = 4; size <= 10; size++) {
+            POSITIONS[size] = new Position[size * size];
+            for (int cell = 0; cell < size * size; cell++) {
+                POSITIONS[size][cell] = new Position(cell / size, cell % size);
+            }
+        }
+    }
+
+    /** Line features: tokens of each color then tokens of each symbol. */
+    static final int PINK_LINE = 0;
+    static final int BLACK_LINE = 1;
+    static final int X_LINE = 2;
+    static final int O_LINE = 3;
+    private static final int LINE_FEATURES = 4;
+
+    /** Per-row and per-column bit masks of the cells holding a token of each feature. */
+    private int[] rowLines;
+    private int[] columnLines;
 
     public Board() {
         this(6);
@@ -15,12 +60,67 @@ public class Board {
             throw new IllegalArgumentException("Board size must be between 4 and 10");
         }
         this.size = size;
-        this.board = new Piece[size][size];
+        this.geometry = BoardGeometry.of(size);
+        this.cells = new Piece[size * size];
+        this.rowLines = new int[LINE_FEATURES * size];
+        this.columnLines = new int[LINE_FEATURES * size];
+        this.emptyCells = size * size;
+    }
+
+    /**
+     * Creates a copy of another board. Pieces are shared, the bitboards and indexes are copied.
+     *
+     * @param other the board to copy
+     */
+    public Board(Board other) {
+        this.size = other.size;
+        this.geometry = other.geometry;
+        this.cells = other.cells.clone();
+        this.rowLines = other.rowLines.clone();
+        this.columnLines = other.columnLines.clone();
+        System.arraycopy(other.occupied, 0, occupied, 0, WORDS);
+        System.arraycopy(other.totems, 0, totems, 0, WORDS);
+        System.arraycopy(other.pinkTokens, 0, pinkTokens, 0, WORDS);
+        System.arraycopy(other.blackTokens, 0, blackTokens, 0, WORDS);
+        System.arraycopy(other.xTokens, 0, xTokens, 0, WORDS);
+        System.arraycopy(other.oTokens, 0, oTokens, 0, WORDS);
+        this.totemCells[0] = other.totemCells[0];
+        this.totemCells[1] = other.totemCells[1];
+        this.emptyCells = other.emptyCells;
+        this.zobristKey = other.zobristKey;
     }
     public int getSize() {
         return size;
     }
 
+    /**
+     * Returns the precomputed tables of this board size.
+     *
+     * @return the shared geometry
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Returns the number of cells of the board.
+     *
+     * @return size * size
+     */
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Returns the Zobrist key of the pieces on the board.
+     * It is updated on every put and remove.
+     *
+     * @return the key of the board
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
     /**
      * Tries to put a piece at the given position.
      *
@@ -31,10 +131,23 @@ public class Board {
      */
     public boolean putPiece(Position pos, Piece piece) {
         validatePosition(pos);
-        if (!isEmpty(pos)) {
+        return putPiece(cellIndex(pos.x(), pos.y()), piece);
+    }
+
+    /**
+     * Tries to put a piece in the given cell.
+     *
+     * @param cell  The index of the cell.
+     * @param piece The piece to place.
+     * @return true if the piece was placed.
+     * @throws IllegalStateException if the cell is already occupied.
+     */
+    public boolean putPiece(int cell, Piece piece) {
+        if (cells[cell] != null) {
             throw new IllegalStateException("Cell occupied");
         }
-        board[pos.x()][pos.y()] = piece;
+        cells[cell] = piece;
+        toggle(cell, piece);
         return true;
     }
 
@@ -45,7 +158,52 @@ public class Board {
      */
     public void removePiece(Position pos) {
         validatePosition(pos);
-        board[pos.x()][pos.y()] = null;
+        removePiece(cellIndex(pos.x(), pos.y()));
+    }
+
+    /**
+     * Removes the piece of the given cell, if any.
+     *
+     * @param cell The index of the cell.
+     */
+    public void removePiece(int cell) {
+        Piece piece = cells[cell];
+        if (piece != null) {
+            cells[cell] = null;
+            toggle(cell, piece);
+        }
+    }
+
+    private void toggle(int cell, Piece piece) {
+        int w = cell >>> 6;
+        long bit = 1L << cell;
+        occupied[w] ^= bit;
+        boolean placed = (occupied[w] & bit) != 0;
+        emptyCells += placed ? -1 : 1;
+        zobristKey ^= Zobrist.pieceKey(Zobrist.pieceKind(piece), cell);
+        if (piece instanceof Totem) {
+            totems[w] ^= bit;
+            totemCells[piece.getSymbol().ordinal()] = placed ? cell : -1;
+            return;
+        }
+        int x = geometry.rowOf[cell];
+        int y = geometry.columnOf[cell];
+        int colorLine = piece.getColor() == Colors.PINK ? PINK_LINE : BLACK_LINE;
+        int symbolLine = piece.getSymbol() == Symbol.X ? X_LINE : O_LINE;
+        if (colorLine == PINK_LINE) {
+            pinkTokens[w] ^= bit;
+        } else {
+            blackTokens[w] ^= bit;
+        }
+        if (symbolLine == X_LINE) {
+            xTokens[w] ^= bit;
+        } else {
+            oTokens[w] ^= bit;
+        }
+        rowLines[colorLine * size + x] ^= 1 << y;
+        rowLines[symbolLine * size + x] ^= 1 << y;
+        columnLines[colorLine * size + y] ^= 1 << x;
+        columnLines[symbolLine * size + y] ^= 1 << x;
     }
 
     /**
@@ -56,7 +214,17 @@ public class Board {
      */
     public Piece getPiece(Position pos) {
         validatePosition(pos);
-        return board[pos.x()][pos.y()];
+        return cells[cellIndex(pos.x(), pos.y())];
+    }
+
+    /**
+     * Returns the piece of the given cell.
+     *
+     * @param cell The index of the cell.
+     * @return The piece in the cell or null.
+     */
+    public Piece getPiece(int cell) {
+        return cells[cell];
     }
 
     /**
@@ -66,7 +234,18 @@ public class Board {
      * @return true if the position is valid, false otherwise.
      */
     public boolean isValidCoordinate(Position pos) {
-        return pos.x() >= 0 && pos.x() < size && pos.y() >= 0 && pos.y() < size;
+        return isValidCoordinate(pos.x(), pos.y());
+    }
+
+    /**
+     * Checks if the given coordinates are on the board.
+     *
+     * @param x The row.
+     * @param y The column.
+     * @return true if the coordinates are valid, false otherwise.
+     */
+    public boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
     }
 
     /**
@@ -77,10 +256,129 @@ public class Board {
      */
     public boolean isEmpty(Position pos) {
         validatePosition(pos);
-        return board[pos.x()][pos.y()] == null;
+        return !isOccupied(cellIndex(pos.x(), pos.y()));
+    }
+
+    /**
+     * Checks if the given cell holds a piece.
+     *
+     * @param cell The index of the cell.
+     * @return true if the cell is occupied, false otherwise.
+     */
+    public boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Returns the index of the cell at the given coordinates.
+     *
+     * @param x The row.
+     * @param y The column.
+     * @return The cell index.
+     */
+    public int cellIndex(int x, int y) {
+        return x * size + y;
+    }
+
+    /**
+     * Returns the index of the cell at the given position.
+     *
+     * @param pos The position.
+     * @return The cell index.
+     */
+    public int cellIndex(Position pos) {
+        validatePosition(pos);
+        return cellIndex(pos.x(), pos.y());
+    }
+
+    /**
+     * Returns the position of the given cell.
+     *
+     * @param cell The index of the cell.
+     * @return The position of the cell.
+     */
+    public Position positionOf(int cell) {
+        return POSITIONS[size][cell];
     }
 
+    /**
+     * Returns the number of empty cells, kept up to date on every put and remove.
+     *
+     * @return the number of empty cells
+     */
+    public int getEmptyCellCount() {
+        return emptyCells;
+    }
 
+    /**
+     * Returns the tokens of a line feature in a row, one bit per column.
+     *
+     * @param feature The line feature (PINK_LINE, BLACK_LINE, X_LINE or O_LINE).
+     * @param x       The row.
+     * @return The bit mask of the row.
+     */
+    int rowLine(int feature, int x) {
+        return rowLines[feature * size + x];
+    }
+
+    /**
+     * Returns the tokens of a line feature in a column, one bit per row.
+     *
+     * @param feature The line feature (PINK_LINE, BLACK_LINE, X_LINE or O_LINE).
+     * @param y       The column.
+     * @return The bit mask of the column.
+     */
+    int columnLine(int feature, int y) {
+        return columnLines[feature * size + y];
+    }
+
+    /**
+     * Returns one word of the occupancy bitboard.
+     *
+     * @param word The word index (0 or 1).
+     * @return The occupied cells of that word.
+     */
+    public long occupiedWord(int word) {
+        return occupied[word];
+    }
+
+    /**
+     * Returns one word of the totem bitboard.
+     *
+     * @param word The word index (0 or 1).
+     * @return The cells holding a totem in that word.
+     */
+    public long totemWord(int word) {
+        return totems[word];
+    }
+
+    /**
+     * Returns one word of the bitboard of the tokens of a color.
+     *
+     * @param colors The color of the tokens (PINK or BLACK).
+     * @param word   The word index (0 or 1).
+     * @return The cells holding a token of that color in that word.
+     * @throws IllegalArgumentException if the color is BLUE, the color of the totems (see {@link #totemWord(int)})
+     */
+    public long colorWord(Colors colors, int word) {
+        return switch (colors) {
+            case PINK -> pinkTokens[word];
+            case BLACK -> blackTokens[word];
+            case BLUE -> throw new IllegalArgumentException("Tokens are pink or black, got: " + colors);
+        };
+    }
+
+    /**
+     * Returns one word of the bitboard of the tokens of a symbol.
+     * Totems are not part of it.
+     *
+     * @param symbol The symbol of the tokens.
+     * @param word   The word index (0 or 1).
+     * @return The cells holding a token with that symbol in that word.
+     */
+    public long symbolWord(Symbol symbol, int word) {
+        return symbol == Symbol.X ? xTokens[word] : oTokens[word];
+    }
 
     /**
      * Finds the position of the given totem.
@@ -90,15 +388,22 @@ public class Board {
      * @throws IllegalStateException if the totem is not found.
      */
     public Position findTotemPosition(Totem totem) {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                Piece p = board[i][j];
-                if (p instanceof Totem t && t.equals(totem)) {
-                    return new Position(i, j);
-                }
-            }
+        return positionOf(findTotemCell(totem.getSymbol()));
+    }
+
+    /**
+     * Finds the cell of the totem with the given symbol.
+     *
+     * @param symbol The symbol of the totem.
+     * @return The cell index of the totem.
+     * @throws IllegalStateException if the totem is not found.
+     */
+    public int findTotemCell(Symbol symbol) {
+        int cell = totemCells[symbol.ordinal()];
+        if (cell < 0) {
+            throw new IllegalStateException("Totem not found");
         }
-        throw new IllegalStateException("Totem not found");
+        return cell;
     }
 
     /**
@@ -117,4 +422,4 @@ public class Board {
         }
     }
 
-}
\ No newline at end of file
+}
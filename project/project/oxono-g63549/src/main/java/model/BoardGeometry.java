@@ -0,0 +1,172 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed lookup tables for one board size: the neighbours of every cell, the
+ * ray of cells in each direction, and every window of four aligned cells.
+ * Tables are built once per size and shared by every board of that size; they are
+ * never modified after construction, which is why the arrays are only reachable
+ * from inside the model package.
+ */
+public final class BoardGeometry {
+    /** Directions as {dx, dy}, in the order used by every table. */
+    static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+    /** Number of cells of an alignment. */
+    public static final int WINDOW_LENGTH = 4;
+
+    private static final BoardGeometry[] GEOMETRIES = new BoardGeometry[11];
+
+    static {
+        for (int size = 4; size <= 10; size++) {
+            GEOMETRIES[size] = new BoardGeometry(size);
+        }
+    }
+
+    final int size;
+    final int cellCount;
+    /** Row and column of each cell. */
+    final int[] rowOf;
+    final int[] columnOf;
+    /** Valid orthogonal neighbours of each cell, in direction order. */
+    final int[][] neighbours;
+    /** Neighbours of each cell as a two-word bitboard: words 2 * cell and 2 * cell + 1. */
+    final long[] neighbourMasks;
+    /** Cells met when walking from a cell in each direction, nearest first: rays[cell][direction]. */
+    final int[][][] rays;
+    /** Cells of each four-cell window, horizontal windows first. */
+    final int[][] windows;
+    /** Windows containing each cell. */
+    final int[][] windowsThrough;
+    /** Cells where a horizontal window starts, as two words. */
+    final long[] rowStarts;
+    /** Every cell of the board, as two words. */
+    final long[] cellMask;
+
+    private BoardGeometry(int size) {
+        this.size = size;
+        this.cellCount = size * size;
+        this.rowOf = new int[cellCount];
+        this.columnOf = new int[cellCount];
+        this.neighbours = new int[cellCount][];
+        this.neighbourMasks = new long[2 * cellCount];
+        this.rays = new int[cellCount][DIRECTIONS.length][];
+        this.rowStarts = new long[Board.WORDS];
+        this.cellMask = new long[Board.WORDS];
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            int x = cell / size;
+            int y = cell % size;
+            rowOf[cell] = x;
+            columnOf[cell] = y;
+            cellMask[cell >>> 6] |= 1L << cell;
+            if (y + WINDOW_LENGTH <= size) {
+                rowStarts[cell >>> 6] |= 1L << cell;
+            }
+
+            int[] around = new int[DIRECTIONS.length];
+            int count = 0;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int length = 0;
+                while (inside(x + (length + 1) * DIRECTIONS[d][0], y + (length + 1) * DIRECTIONS[d][1])) {
+                    length++;
+                }
+                int[] ray = new int[length];
+                for (int step = 0; step < length; step++) {
+                    ray[step] = cell + (step + 1) * (DIRECTIONS[d][0] * size + DIRECTIONS[d][1]);
+                }
+                rays[cell][d] = ray;
+                if (length > 0) {
+                    around[count++] = ray[0];
+                    neighbourMasks[2 * cell + (ray[0] >>> 6)] |= 1L << ray[0];
+                }
+            }
+            neighbours[cell] = Arrays.copyOf(around, count);
+        }
+
+        int perLine = size - WINDOW_LENGTH + 1;
+        this.windows = new int[2 * size * perLine][];
+        int w = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < perLine; y++) {
+                windows[w++] = line(x * size + y, 1);
+            }
+        }
+        for (int x = 0; x < perLine; x++) {
+            for (int y = 0; y < size; y++) {
+                windows[w++] = line(x * size + y, size);
+            }
+        }
+
+        int[] through = new int[cellCount];
+        for (int[] window : windows) {
+            for (int cell : window) {
+                through[cell]++;
+            }
+        }
+        this.windowsThrough = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            windowsThrough[cell] = new int[through[cell]];
+            through[cell] = 0;
+        }
+        for (int i = 0; i < windows.length; i++) {
+            for (int cell : windows[i]) {
+                windowsThrough[cell][through[cell]++] = i;
+            }
+        }
+    }
+
+    private boolean inside(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    private static int[] line(int start, int step) {
+        int[] cells = new int[WINDOW_LENGTH];
+        for (int i = 0; i < WINDOW_LENGTH; i++) {
+            cells[i] = start + i * step;
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the tables of a board size.
+     *
+     * @param size the board size, between 4 and 10
+     * @return the shared tables
+     */
+    public static BoardGeometry of(int size) {
+        if (size < 4 || size > 10) {
+            throw new IllegalArgumentException("Board size must be between 4 and 10");
+        }
+        return GEOMETRIES[size];
+    }
+
+    /**
+     * Returns the index of a direction in {@link #DIRECTIONS}.
+     *
+     * @param dx the row step
+     * @param dy the column step
+     * @return the direction index
+     * @throws IllegalArgumentException if the step is not orthogonal and of length one
+     */
+    static int directionIndex(int dx, int dy) {
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (DIRECTIONS[d][0] == dx && DIRECTIONS[d][1] == dy) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException("Invalid direction: " + dx + "," + dy);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int getWindowCount() {
+        return windows.length;
+    }
+}
@@ -0,0 +1,32 @@
+package model;
+
+/**
+ * Plays the move of the {@link OpeningBook} of the board size, if it is legal in the position.
+ */
+class BookStage implements PreMoveStage {
+    private OpeningBook openingBook;
+
+    @Override
+    public int probe(SearchState state, long budgetMillis) {
+        OpeningBook book = openingBook != null ? openingBook : OpeningBook.forSize(state.getBoardSize());
+        if (book.isEmpty() || state.getPhase() != TurnPhase.MOVE_TOTEM) {
+            return MoveCodec.NO_MOVE;
+        }
+        int move = book.probe(state);
+        if (move == MoveCodec.NO_MOVE) {
+            return move;
+        }
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        return moves.contains(move) ? move : MoveCodec.NO_MOVE;
+    }
+
+    /**
+     * Replaces the book of the board size with a given book, or restores it with null.
+     *
+     * @param openingBook the book to use, or null for {@link OpeningBook#forSize(int)}
+     */
+    void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+}
@@ -23,6 +23,16 @@ public class CompositeMoveCommand implements Command {
                 null;
     }
 
+    /**
+     * Creates the command from a packed move (see {@link MoveCodec}).
+     *
+     * @param gameModel the game model
+     * @param move      the packed move
+     */
+    public CompositeMoveCommand(GameModel gameModel, int move) {
+        this(gameModel, MoveCodec.decode(move, gameModel.getBoardSize()));
+    }
+
     @Override
     public void execute() {
         moveTotemCommand.execute();
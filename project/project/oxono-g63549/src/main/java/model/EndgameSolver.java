@@ -0,0 +1,286 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Solves positions near the end of the game exactly: win, draw or loss for the side to move.
+ * Every turn places a token, so once few tokens or few empty cells are left the whole
+ * game tree can be searched to the end. The solver runs alpha-beta on exact outcomes
+ * only, with no evaluation and no depth limit, and memorises the bounds it proves by
+ * position key. Moves are ordered by a {@link MoveOrderer}, so wins and blocks come first.
+ * A solve is bounded by a time limit and can be stopped from another thread; an
+ * interrupted solve proves nothing and returns no move.
+ * The tokens left bound the depth of the tree, but its width grows with the free space
+ * of the board: the token threshold is given for a 6x6 board and scaled down in
+ * proportion on larger ones, 9 on 8x8 and 7 on 10x10 by default. The empty cells bound
+ * the width as well, so that threshold holds on every board.
+ * As a step before a move, it solves endgames only and plays a proven win or draw.
+ */
+public class EndgameSolver implements PreMoveStage {
+    /** Outcomes, from the side to move's point of view. */
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    /** Default number of tokens left in both bags below which positions of a 6x6 board are solved. */
+    public static final int DEFAULT_MAX_TOKENS = 12;
+    /** Default number of empty cells below which positions are solved. */
+    public static final int DEFAULT_MAX_EMPTY_CELLS = 12;
+
+    /** Default size of the memory of proven positions, as a power of two. */
+    public static final int DEFAULT_CACHE_BITS = 18;
+
+    /** Board size the token threshold is given for. */
+    private static final int REFERENCE_SIZE = 6;
+    private static final int MAX_PLIES = AlphaBetaSearch.MAX_DEPTH;
+    /** The clock is read once every CHECK_INTERVAL + 1 nodes. */
+    private static final int CHECK_INTERVAL = 1023;
+    private static final int EXACT = 1;
+    private static final int LOWER_BOUND = 2;
+    private static final int UPPER_BOUND = 3;
+
+    private final int maxTokens;
+    private final int maxEmptyCells;
+    private final MoveOrderer orderer = new MoveOrderer();
+    private final MoveList[] moveLists = new MoveList[MAX_PLIES + 1];
+    /**
+     * Memorised nodes: bits 0-1 the outcome plus one, bits 2-3 the bound type (0 for an
+     * empty slot) and bits 4-31 the best packed move plus one.
+     */
+    private final long[] cacheKeys;
+    private final int[] cacheValues;
+
+    private SearchState state;
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private boolean solved;
+    private int rootTokens;
+    private int rootMove;
+    private int outcome;
+
+    public EndgameSolver() {
+        this(DEFAULT_MAX_TOKENS, DEFAULT_MAX_EMPTY_CELLS);
+    }
+
+    /**
+     * Creates a solver with its own thresholds.
+     *
+     * @param maxTokens     the number of tokens left in both bags at or below which a position of
+     *                      a 6x6 board is solved
+     * @param maxEmptyCells the number of empty cells at or below which a position is solved
+     */
+    public EndgameSolver(int maxTokens, int maxEmptyCells) {
+        this(maxTokens, maxEmptyCells, DEFAULT_CACHE_BITS);
+    }
+
+    /**
+     * Creates a solver with its own thresholds and memory size.
+     *
+     * @param maxTokens     the number of tokens left in both bags at or below which a position of
+     *                      a 6x6 board is solved
+     * @param maxEmptyCells the number of empty cells at or below which a position is solved
+     * @param cacheBits     the number of memorised positions, as a power of two
+     */
+    public EndgameSolver(int maxTokens, int maxEmptyCells, int cacheBits) {
+        if (maxTokens < 0 || maxEmptyCells < 0) {
+            throw new IllegalArgumentException("Thresholds must not be negative");
+        }
+        if (cacheBits < 1 || cacheBits > 28) {
+            throw new IllegalArgumentException("Cache size must be between 2^1 and 2^28 entries");
+        }
+        this.maxTokens = maxTokens;
+        this.maxEmptyCells = maxEmptyCells;
+        this.cacheKeys = new long[1 << cacheBits];
+        this.cacheValues = new int[1 << cacheBits];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Checks if a position is small enough to be solved.
+     *
+     * @param state the position
+     * @return true if few enough tokens or empty cells are left
+     */
+    public boolean isEndgame(SearchState state) {
+        return tokensLeft(state) <= getMaxTokens(state.getBoardSize())
+                || state.getBoard().getEmptyCellCount() <= maxEmptyCells;
+    }
+
+    /**
+     * Returns the token threshold of a board size.
+     *
+     * @param boardSize the size of the board
+     * @return the number of tokens left at or below which a position is solved
+     */
+    public int getMaxTokens(int boardSize) {
+        return boardSize <= REFERENCE_SIZE ? maxTokens : maxTokens * REFERENCE_SIZE / boardSize;
+    }
+
+    /**
+     * Solves a position and returns a move keeping its best outcome.
+     * Positions memorised by earlier calls are reused.
+     *
+     * @param state           the position, with the solver's side to move; it is played on and restored
+     * @param timeLimitMillis the time budget, in milliseconds
+     * @return the best packed move, or MoveCodec.NO_MOVE if the time ran out or there is no move
+     */
+    public int solve(SearchState state, long timeLimitMillis) {
+        this.state = state;
+        nodes = 0;
+        aborted = false;
+        solved = false;
+        outcome = DRAW;
+        deadline = TimeControl.deadline(System.nanoTime(), timeLimitMillis);
+        rootTokens = tokensLeft(state);
+        rootMove = MoveCodec.NO_MOVE;
+        if (state.getPhase() != TurnPhase.MOVE_TOTEM || rootTokens > MAX_PLIES) {
+            return MoveCodec.NO_MOVE;
+        }
+
+        int value = negamax(LOSS, WIN, 0);
+        if (aborted) {
+            return MoveCodec.NO_MOVE;
+        }
+        solved = true;
+        outcome = value;
+        return rootMove;
+    }
+
+    /**
+     * Solves the position if it is an endgame, and keeps the move only if it does not lose.
+     */
+    @Override
+    public int probe(SearchState state, long budgetMillis) {
+        if (!isEndgame(state)) {
+            return MoveCodec.NO_MOVE;
+        }
+        int move = solve(state, budgetMillis);
+        return solved && outcome != LOSS ? move : MoveCodec.NO_MOVE;
+    }
+
+    private int negamax(int alpha, int beta, int ply) {
+        if ((++nodes & CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return DRAW;
+        }
+
+        long key = state.getKey();
+        int slot = slot(key);
+        int tableMove = MoveCodec.NO_MOVE;
+        if (cacheKeys[slot] == key && cacheValues[slot] != 0) {
+            int entry = cacheValues[slot];
+            int value = (entry & 3) - 1;
+            int bound = (entry >>> 2) & 3;
+            tableMove = (entry >>> 4) - 1;
+            if (ply > 0 && (bound == EXACT
+                    || (bound == LOWER_BOUND && value >= beta)
+                    || (bound == UPPER_BOUND && value <= alpha))) {
+                return value;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        state.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return DRAW;
+        }
+        orderer.score(state, moves, ply, MoveCodec.NO_MOVE, tableMove);
+
+        int originalAlpha = alpha;
+        int best = LOSS - 1;
+        int bestMove = MoveCodec.NO_MOVE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = orderer.pick(moves, ply, i);
+            boolean won = state.make(move);
+            int value = won ? WIN : -negamax(-beta, -alpha, ply + 1);
+            state.unmake(move);
+            if (aborted) {
+                return DRAW;
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (ply == 0) {
+                    rootMove = move;
+                }
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        if (!won) {
+                            orderer.recordCutoff(move, ply, rootTokens - ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+        cacheKeys[slot] = key;
+        cacheValues[slot] = (best + 1) | bound << 2 | (bestMove + 1) << 4;
+        return best;
+    }
+
+    /**
+     * Counts the tokens left in both bags, which bounds the number of turns left.
+     */
+    private static int tokensLeft(SearchState state) {
+        int tokens = 0;
+        for (Symbol symbol : Symbol.values()) {
+            tokens += state.tokens(Colors.PINK, symbol) + state.tokens(Colors.BLACK, symbol);
+        }
+        return tokens;
+    }
+
+    private int slot(long key) {
+        return (int) key & (cacheKeys.length - 1);
+    }
+
+    /**
+     * Asks the running solve to give up, from any thread.
+     * The request also holds for the next solves, until {@link #clearStop()}.
+     */
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets a stop request, before a new move. A solve does not do it by itself, so a
+     * stop sent just before it starts still applies.
+     */
+    @Override
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Forgets the memorised positions and the move ordering statistics, for a new game.
+     */
+    public void clear() {
+        Arrays.fill(cacheValues, 0);
+        orderer.clear();
+    }
+
+    /**
+     * Checks if the last call proved the outcome of its position.
+     *
+     * @return false if the last call ran out of time or was stopped
+     */
+    public boolean isSolved() { return solved; }
+
+    /**
+     * Returns the outcome proved by the last call.
+     *
+     * @return WIN, DRAW or LOSS for the side to move, or DRAW if nothing was proved
+     */
+    public int getOutcome() { return outcome; }
+    public long getNodes() { return nodes; }
+}
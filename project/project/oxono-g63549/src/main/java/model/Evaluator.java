@@ -0,0 +1,186 @@
+package model;
+
+/**
+ * Positional evaluation of a {@link SearchState}, kept up to date token by token.
+ * Every four-cell window of the board keeps the number of pink, black, X and O tokens
+ * it holds. A window still open for a color (no token of the other color) or for a
+ * symbol (no token of the other symbol) scores its run of 1, 2 or 3 tokens; an open
+ * run lies in more live windows than a half-open one, so it is worth more. Totems are
+ * treated as empty cells since they never stay in place.
+ * Placing or removing a token only touches the windows through its cell, so the
+ * evaluation can be called at every leaf of a search. Bag counts and totem mobility
+ * depend on whose turn it is and are added when the position is evaluated.
+ */
+public final class Evaluator {
+    /** Value of a live window by the number of tokens it holds. A full window is a win. */
+    static final int[] RUN_SCORES = {0, 1, 10, 60, 0};
+    /** Value of one cell a totem can reach, for a player who can still use that totem. */
+    static final int MOBILITY_WEIGHT = 1;
+    /** Value of each pair of X and O tokens left, which keeps both totems playable. */
+    static final int BAG_WEIGHT = 4;
+
+    private static final int PINK_SHIFT = 0;
+    private static final int BLACK_SHIFT = 4;
+    private static final int X_SHIFT = 8;
+    private static final int O_SHIFT = 12;
+    private static final int COUNT_MASK = 0xF;
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    /** Signed score of a color window, from pink's side, indexed by pink * 5 + black. */
+    private static final int[] COLOR_SCORES = new int[25];
+    /** Score of a symbol window for one symbol, indexed by own * 5 + other. */
+    private static final int[] SYMBOL_SCORES = new int[25];
+
+    static {
+        for (int own = 0; own <= 4; own++) {
+            for (int other = 0; other <= 4; other++) {
+                int live = other == 0 ? RUN_SCORES[own] : 0;
+                SYMBOL_SCORES[own * 5 + other] = live;
+                COLOR_SCORES[own * 5 + other] = live - (own == 0 ? RUN_SCORES[other] : 0);
+            }
+        }
+    }
+
+    private final BoardGeometry geometry;
+    /** Token counts of each window, four bits per feature. */
+    private final int[] windowCounts;
+    /** Sum of the color windows, from pink's side. */
+    private int colorScore;
+    /** Sum of the symbol windows of each symbol, shared by both players. */
+    private final int[] symbolScores = new int[2];
+    private final int[] targets;
+
+    /**
+     * Creates the evaluation of the tokens already on a board.
+     *
+     * @param board the board
+     */
+    public Evaluator(Board board) {
+        this.geometry = board.getGeometry();
+        this.windowCounts = new int[geometry.getWindowCount()];
+        this.targets = new int[geometry.getCellCount()];
+        for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+            if (board.getPiece(cell) instanceof Token token) {
+                addToken(cell, token.getColor(), token.getSymbol());
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of another evaluation.
+     *
+     * @param other the evaluation to copy
+     */
+    public Evaluator(Evaluator other) {
+        this.geometry = other.geometry;
+        this.windowCounts = other.windowCounts.clone();
+        this.colorScore = other.colorScore;
+        this.symbolScores[0] = other.symbolScores[0];
+        this.symbolScores[1] = other.symbolScores[1];
+        this.targets = new int[other.targets.length];
+    }
+
+    /**
+     * Updates the windows through a cell that received a token.
+     *
+     * @param cell   the cell of the token
+     * @param colors the color of the token
+     * @param symbol the symbol of the token
+     */
+    public void addToken(int cell, Colors colors, Symbol symbol) {
+        update(cell, (1 << (colors == Colors.PINK ? PINK_SHIFT : BLACK_SHIFT))
+                + (1 << (symbol == Symbol.X ? X_SHIFT : O_SHIFT)));
+    }
+
+    /**
+     * Updates the windows through a cell whose token was taken back.
+     *
+     * @param cell   the cell of the token
+     * @param colors the color of the token
+     * @param symbol the symbol of the token
+     */
+    public void removeToken(int cell, Colors colors, Symbol symbol) {
+        update(cell, -(1 << (colors == Colors.PINK ? PINK_SHIFT : BLACK_SHIFT))
+                - (1 << (symbol == Symbol.X ? X_SHIFT : O_SHIFT)));
+    }
+
+    private void update(int cell, int delta) {
+        for (int window : geometry.windowsThrough[cell]) {
+            int before = windowCounts[window];
+            int after = before + delta;
+            windowCounts[window] = after;
+            colorScore += colorScore(after) - colorScore(before);
+            symbolScores[0] += xScore(after) - xScore(before);
+            symbolScores[1] += oScore(after) - oScore(before);
+        }
+    }
+
+    private static int colorScore(int counts) {
+        return COLOR_SCORES[((counts >>> PINK_SHIFT) & COUNT_MASK) * 5 + ((counts >>> BLACK_SHIFT) & COUNT_MASK)];
+    }
+
+    private static int xScore(int counts) {
+        return SYMBOL_SCORES[((counts >>> X_SHIFT) & COUNT_MASK) * 5 + ((counts >>> O_SHIFT) & COUNT_MASK)];
+    }
+
+    private static int oScore(int counts) {
+        return SYMBOL_SCORES[((counts >>> O_SHIFT) & COUNT_MASK) * 5 + ((counts >>> X_SHIFT) & COUNT_MASK)];
+    }
+
+    /**
+     * Scores a position from the side to move's point of view.
+     * Color runs count for their owner. Symbol runs can be completed by either player
+     * with a token of that symbol left, and the side to move gets the first chance, so
+     * they count fully for it and half for the opponent. The same goes for the cells
+     * each totem can reach. Keeping tokens of both symbols is rewarded through the
+     * number of complete X and O pairs left.
+     *
+     * @param state the position, whose tokens must match this evaluation
+     * @return the score, far below AlphaBetaSearch.WIN_SCORE in absolute value
+     */
+    public int evaluate(SearchState state) {
+        Colors side = state.getSideToMove();
+        Colors opponent = SearchState.opponent(side);
+        Board board = state.getBoard();
+        int score = side == Colors.PINK ? colorScore : -colorScore;
+
+        for (Symbol symbol : SYMBOLS) {
+            boolean mine = state.tokens(side, symbol) > 0;
+            boolean theirs = state.tokens(opponent, symbol) > 0;
+            if (!mine && !theirs) {
+                continue;
+            }
+            int value = symbolScores[symbol.ordinal()]
+                    + MOBILITY_WEIGHT * GameRules.generateTotemTargets(board, symbol, targets, 0);
+            if (mine) {
+                score += value;
+            }
+            if (theirs) {
+                score -= value / 2;
+            }
+        }
+
+        score += BAG_WEIGHT * (Math.min(state.tokens(side, Symbol.X), state.tokens(side, Symbol.O))
+                - Math.min(state.tokens(opponent, Symbol.X), state.tokens(opponent, Symbol.O)));
+        return score;
+    }
+
+    /**
+     * Returns the sum of the color windows from pink's side.
+     *
+     * @return the color score
+     */
+    public int getColorScore() {
+        return colorScore;
+    }
+
+    /**
+     * Returns the sum of the symbol windows of a symbol.
+     *
+     * @param symbol the symbol
+     * @return the symbol score
+     */
+    public int getSymbolScore(Symbol symbol) {
+        return symbolScores[symbol.ordinal()];
+    }
+}
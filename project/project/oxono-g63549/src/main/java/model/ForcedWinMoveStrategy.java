@@ -0,0 +1,230 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+import Util.MoveStrategy;
+import Util.PonderingMoveStrategy;
+
+import java.util.List;
+
+/**
+ * Wraps any strategy with the proven knowledge every bot shares, as a list of
+ * {@link PreMoveStage} steps tried in order before the wrapped strategy; the first
+ * move found is played at once.
+ * In the opening, the move of the {@link OpeningBook} of the board size is played.
+ * Otherwise a {@link ThreatSpaceSearch} looks for a forced win. It is bounded by a node
+ * budget, so it only costs a few milliseconds before a normal search and stops the
+ * bots from missing forced wins.
+ * Near the end of the game, an {@link EndgameSolver} then solves the position within
+ * half of the time budget, or UNTIMED_SOLVE_TIME in a move without one, and plays a
+ * move keeping a proven win or draw. A proven loss, or a solve out of time, is left to
+ * the wrapped strategy.
+ * A wrapped strategy answering the position exactly (see
+ * {@link MoveStrategy#answersExactly(SearchState)}) plays at once, before all of the above.
+ * Pondering is passed on to the wrapped strategy when it supports it. Its background
+ * search is stopped before any of the steps, and a reply it prepared for the
+ * position is played at once, without them.
+ */
+public class ForcedWinMoveStrategy implements PonderingMoveStrategy, AutoCloseable {
+    /**
+     * Time budget of the endgame solver in a move without one, in milliseconds: the
+     * wrapped strategy then keeps its own limit, so the solver only gets a short look.
+     */
+    public static final long UNTIMED_SOLVE_TIME = 100;
+
+    private final MoveStrategy delegate;
+    private final BookStage book = new BookStage();
+    private final ThreatSpaceSearch threatSearch;
+    private final EndgameSolver endgameSolver;
+    private final List<PreMoveStage> stages;
+    private PreMoveStage lastStage;
+
+    /**
+     * Wraps a strategy with the default threat search limits.
+     *
+     * @param delegate the strategy playing when no forced win is found
+     */
+    public ForcedWinMoveStrategy(MoveStrategy delegate) {
+        this(delegate, ThreatSpaceSearch.DEFAULT_MAX_DEPTH, ThreatSpaceSearch.DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Wraps a strategy with explicit threat search limits and the default endgame solver.
+     *
+     * @param delegate the strategy playing when no forced win is found
+     * @param maxDepth the longest win looked for, in turns of the bot
+     * @param maxNodes the number of positions the threat search may visit
+     */
+    public ForcedWinMoveStrategy(MoveStrategy delegate, int maxDepth, long maxNodes) {
+        this(delegate, maxDepth, maxNodes, new EndgameSolver());
+    }
+
+    /**
+     * Wraps a strategy with explicit threat search limits and endgame solver.
+     *
+     * @param delegate      the strategy playing when no forced win is found
+     * @param maxDepth      the longest win looked for, in turns of the bot
+     * @param maxNodes      the number of positions the threat search may visit
+     * @param endgameSolver the solver of positions near the end of the game
+     */
+    public ForcedWinMoveStrategy(MoveStrategy delegate, int maxDepth, long maxNodes, EndgameSolver endgameSolver) {
+        this.delegate = delegate;
+        this.threatSearch = new ThreatSpaceSearch(maxDepth, maxNodes);
+        this.endgameSolver = endgameSolver;
+        this.stages = List.of(book, threatSearch, endgameSolver);
+    }
+
+    @Override
+    public Move calculateMove(GameModel gameModel) {
+        return MoveCodec.decode(calculatePackedMove(gameModel), gameModel.getBoardSize());
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel) {
+        int move = findForcedWin(gameModel, UNTIMED_SOLVE_TIME);
+        return move != MoveCodec.NO_MOVE ? move : delegate.calculatePackedMove(gameModel);
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+        long start = System.nanoTime();
+        int move = findForcedWin(gameModel, Math.max(timeLimitMillis / 2, 1));
+        if (move != MoveCodec.NO_MOVE) {
+            return move;
+        }
+        if (delegate instanceof AnytimeMoveStrategy anytime) {
+            long left = timeLimitMillis - (System.nanoTime() - start) / 1_000_000L;
+            return anytime.calculatePackedMove(gameModel, Math.max(left, 1));
+        }
+        return delegate.calculatePackedMove(gameModel);
+    }
+
+    /**
+     * Runs the steps in order, unless the wrapped strategy has its answer ready.
+     *
+     * @param budgetMillis the time budget of each step
+     * @return the move to play, or MoveCodec.NO_MOVE to let the wrapped strategy play
+     */
+    private int findForcedWin(GameModel gameModel, long budgetMillis) {
+        lastStage = null;
+        if (delegate instanceof PonderingMoveStrategy pondering) {
+            pondering.stopPondering();
+            if (pondering.isPonderHit(gameModel)) {
+                return MoveCodec.NO_MOVE;
+            }
+        }
+        SearchState state = gameModel.createSearchState();
+        if (delegate.answersExactly(state)) {
+            return MoveCodec.NO_MOVE;
+        }
+        for (PreMoveStage stage : stages) {
+            int move = stage.probe(state, budgetMillis);
+            if (move != MoveCodec.NO_MOVE) {
+                lastStage = stage;
+                return move;
+            }
+        }
+        return MoveCodec.NO_MOVE;
+    }
+
+    /**
+     * Replaces the book of the board size with a given book, or restores it with null.
+     *
+     * @param openingBook the book to use, or null for {@link OpeningBook#forSize(int)}
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        book.setOpeningBook(openingBook);
+    }
+
+    @Override
+    public void play(GameModel gameModel) {
+        delegate.play(gameModel);
+    }
+
+    @Override
+    public void ponder(GameModel gameModel) {
+        if (delegate instanceof PonderingMoveStrategy pondering) {
+            pondering.ponder(gameModel);
+        }
+    }
+
+    @Override
+    public void stopPondering() {
+        if (delegate instanceof PonderingMoveStrategy pondering) {
+            pondering.stopPondering();
+        }
+    }
+
+    @Override
+    public boolean isPonderHit(GameModel gameModel) {
+        return delegate instanceof PonderingMoveStrategy pondering && pondering.isPonderHit(gameModel);
+    }
+
+    @Override
+    public void cancelPondering() {
+        if (delegate instanceof PonderingMoveStrategy pondering) {
+            pondering.cancelPondering();
+        }
+    }
+
+    @Override
+    public boolean answersExactly(SearchState state) {
+        return delegate.answersExactly(state);
+    }
+
+    @Override
+    public void stop() {
+        stages.forEach(PreMoveStage::stop);
+        if (delegate instanceof AnytimeMoveStrategy anytime) {
+            anytime.stop();
+        }
+    }
+
+    @Override
+    public void clearStop() {
+        stages.forEach(PreMoveStage::clearStop);
+        if (delegate instanceof AnytimeMoveStrategy anytime) {
+            anytime.clearStop();
+        }
+    }
+
+    /**
+     * Returns the length of the forced win played by the last call.
+     *
+     * @return the number of turns of the bot until the win, or 0 if no forced win was played
+     */
+    public int getLastWinDepth() { return lastStage == threatSearch ? threatSearch.getWinDepth() : 0; }
+
+    /**
+     * Checks if the last call played a move of the endgame solver.
+     *
+     * @return true if the move keeps a proven win or draw
+     */
+    public boolean isLastSolved() { return lastStage == endgameSolver; }
+
+    /**
+     * Checks if the last call played the move of the opening book.
+     *
+     * @return true if the move came from the book
+     */
+    public boolean isLastBookMove() { return lastStage == book; }
+
+    /** Returns the solver of the endgame step. */
+    EndgameSolver getEndgameSolver() { return endgameSolver; }
+
+    /** Returns the strategy playing when no step finds a move. */
+    MoveStrategy getDelegate() { return delegate; }
+
+    /** Returns the search of the forced win step. */
+    ThreatSpaceSearch getThreatSearch() { return threatSearch; }
+
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not release the wrapped strategy", e);
+            }
+        }
+    }
+}
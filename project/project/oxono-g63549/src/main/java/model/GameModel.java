@@ -1,6 +1,7 @@
 package model;
 
 import Util.MoveStrategy;
+import Util.PonderingMoveStrategy;
 import Util.Observable;
 import Util.Observer;
 import java.util.ArrayList;
@@ -27,6 +28,11 @@ public class GameModel implements Observable {
     private List<Observer> observers = new ArrayList<>();
     private boolean isNotifying = false;
 
+    private TimeControl timeControl = TimeControl.perMove(TimeControl.DEFAULT_MOVE_TIME);
+    private boolean verbose = true;
+    /** Start of the current turn, from System.nanoTime(), to charge the human's clock. */
+    private long turnStartNanos = System.nanoTime();
+
     /**
      * Creates a new game with default board size of 6.
      */
@@ -44,12 +50,13 @@ public class GameModel implements Observable {
     }
 
     private void initializeGame(int boardSize) {
+        releaseBot();
         this.player1 = new Player(Colors.PINK);
         this.player2 = new Player(Colors.BLACK, new RandomMoveStrategy());
         this.currentPlayer = player1;
         this.board = new Board(boardSize);
-        this.totemX = new Totem(Symbol.X);
-        this.totemO = new Totem(Symbol.O);
+        this.totemX = Totem.of(Symbol.X);
+        this.totemO = Totem.of(Symbol.O);
         this.gameOver = false;
         this.winner = null;
         this.selectedTotemPosition = null;
@@ -78,8 +85,10 @@ public class GameModel implements Observable {
 
         initializeGame(boardSize);
         currentPhase = TurnPhase.MOVE_TOTEM;
+        timeControl.reset();
+        turnStartNanos = System.nanoTime();
 
-        System.out.println("Game started with board size: " + boardSize);
+        log("Game started with board size: " + boardSize);
 
         notifyObservers("GAME_STARTED", boardSize);
 
@@ -89,7 +98,7 @@ public class GameModel implements Observable {
 
     /**
      * Forfeits the current game.
-     * The opponent of the current player becomes the winner.
+     * The opponent of the current player becomes the winner and the bot stops pondering.
      *
      * @throws IllegalStateException if the game is already over
      */
@@ -101,8 +110,9 @@ public class GameModel implements Observable {
         this.winner = (currentPlayer == player1) ? player2 : player1;
         this.gameOver = true;
         this.selectedTotemPosition = null;
+        cancelPondering();
 
-        System.out.println("Player " + winner.getColor() + " wins because the opponent forfeited!");
+        log("Player " + winner.getColor() + " wins because the opponent forfeited!");
         notifyObservers("GAME_FORFEITED", winner);
     }
 
@@ -194,7 +204,7 @@ public class GameModel implements Observable {
 
             notifyObservers("TOTEM_MOVED", target);
             notifyObservers("PHASE_CHANGED", currentPhase);
-            checkGameOver();
+            checkGameOver(GameRules.checkWin(board));
         }
 
         return moved;
@@ -234,7 +244,7 @@ public class GameModel implements Observable {
         notifyObservers("TOKEN_PLACED", position);
         notifyTokenCountChanged();
 
-        checkGameOver();
+        checkGameOver(GameRules.checkWinAt(board, board.cellIndex(position)));
         if (!gameOver) {
             endTurn();
         }
@@ -253,12 +263,26 @@ public class GameModel implements Observable {
     /**
      * Ends the current turn and switches to the next player.
      * Resets the game phase to totem movement.
+     * The time of a human turn is charged to the player's clock (the bots are charged
+     * by the {@link TimeControl} when they compute their move); a player whose clock
+     * ran out loses the game instead.
      */
     public void endTurn() {
+        long elapsedMillis = (System.nanoTime() - turnStartNanos) / 1_000_000L;
+        if (!currentPlayer.isAutomated()) {
+            timeControl.charge(currentPlayer.getColor(), elapsedMillis);
+        }
+        if (timeControl.isFlagged(currentPlayer.getColor())) {
+            log("Player " + currentPlayer.getColor() + " ran out of time!");
+            forfeitGame();
+            return;
+        }
         currentPlayer = (currentPlayer == player1) ? player2 : player1;
         currentPhase = TurnPhase.MOVE_TOTEM;
 
-        System.out.println("Next turn: " + currentPlayer.getColor());
+        turnStartNanos = System.nanoTime();
+
+        log("Next turn: " + currentPlayer.getColor());
         notifyObservers("CURRENT_PLAYER_CHANGED", currentPlayer);
         notifyObservers("PHASE_CHANGED", currentPhase);
     }
@@ -275,53 +299,60 @@ public class GameModel implements Observable {
         notifyObservers("PHASE_CHANGED", currentPhase);
     }
 
-    private void checkGameOver() {
-        System.out.println("DEBUG: Checking game over, current phase: " + currentPhase);
+    private void checkGameOver(boolean alignment) {
+        log("DEBUG: Checking game over, current phase: " + currentPhase);
 
-        if (GameRules.checkWin(board)) {
+        if (alignment) {
             winner = currentPlayer;
             gameOver = true;
             selectedTotemPosition = null;
-            System.out.println("Game over! The winner is: " + winner.getColor());
+            cancelPondering();
+            log("Game over! The winner is: " + winner.getColor());
             notifyObservers("GAME_WON", winner);
 
         } else if (!GameRules.isMovePossible(board)) {
             gameOver = true;
             selectedTotemPosition = null;
-            System.out.println("Game over! It's a draw, no moves left.");
+            cancelPondering();
+            log("Game over! It's a draw, no moves left.");
             notifyObservers("GAME_DRAW", null);
 
         } else {
-            System.out.println("DEBUG: Game continues, phase should stay: " + currentPhase);
+            log("DEBUG: Game continues, phase should stay: " + currentPhase);
         }
     }
 
     /**
      * Executes an automatic move for the current AI player.
+     * The strategy gets the budget given by the time control and is stopped at its
+     * hard limit.
      *
      * @param commandManager the command manager to execute the move
      */
     public void executeAutomaticMove(CommandManager commandManager) {
         if (!currentPlayer.isAutomated()) return;
 
-        System.out.println("Automatic player (" + currentPlayer.getColor() + ") is playing...");
+        log("Automatic player (" + currentPlayer.getColor() + ") is playing...");
 
         int maxAttempts = 10;
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
             try {
-                Move move = currentPlayer.getMoveStrategy().calculateMove(this);
+                int packedMove = timeControl.play(currentPlayer.getMoveStrategy(), this);
+                Move move = MoveCodec.decode(packedMove, board.getSize());
                 if (move == null) {
-                    System.out.println("No move returned by strategy.");
+                    log("No move returned by strategy.");
                     return;
                 }
 
                 CompositeMoveCommand compositeCommand = new CompositeMoveCommand(this, move);
                 commandManager.executeCommand(compositeCommand);
 
-                System.out.println("Automatic player executed move: " + move + " (attempt " + attempt + ")");
+                log("Automatic player executed move: " + move + " (attempt " + attempt
+                        + ", " + timeControl.getLastMoveMillis() + " ms)");
+                return;
 
             } catch (IllegalStateException e) {
-                System.out.println("AI move attempt " + attempt + " failed: " + e.getMessage());
+                log("AI move attempt " + attempt + " failed: " + e.getMessage());
                 if (attempt == maxAttempts) {
                     System.err.println("AI failed to find a valid move after " + maxAttempts + " attempts");
                     endTurn();
@@ -334,18 +365,59 @@ public class GameModel implements Observable {
     }
 
     /**
-     * Sets the AI level for player 2.
+     * Lets the bot search in the background while the human player thinks, if its
+     * strategy can ponder and the game goes on.
+     */
+    public void startPondering() {
+        if (!gameOver && !currentPlayer.isAutomated()
+                && player2.getMoveStrategy() instanceof PonderingMoveStrategy strategy) {
+            strategy.ponder(this);
+        }
+    }
+
+    /**
+     * Cancels the background search of the bot, if any, and forgets its result.
+     */
+    public void cancelPondering() {
+        if (player2.getMoveStrategy() instanceof PonderingMoveStrategy strategy) {
+            strategy.cancelPondering();
+        }
+    }
+
+    /**
+     * Sets the AI level for player 2. The previous bot is released first.
+     * Every level first looks for a forced win (see {@link ForcedWinMoveStrategy}).
+     * Level 4 plays perfectly on 4x4 (see {@link PerfectMoveStrategy}) and like level 2 elsewhere.
      *
-     * @param level the AI level ("random", "level0", "level1", or "intelligent")
+     * @param level the AI level ("random", "level0", "level1", "intelligent", "level2", "alphabeta", "level3", "mcts",
+     *              "level4" or "perfect")
      */
     public void setAILevel(String level) {
         MoveStrategy strategy = switch (level.toLowerCase()) {
             case "random", "level0" -> new RandomMoveStrategy();
             case "level1", "intelligent" -> new IntelligentMoveStrategy();
+            case "level2", "alphabeta" -> new AlphaBetaMoveStrategy();
+            case "level3", "mcts" -> new MctsMoveStrategy();
+            case "level4", "perfect" -> new PerfectMoveStrategy(new AlphaBetaMoveStrategy());
             default -> new RandomMoveStrategy();
         };
-        this.player2 = new Player(Colors.BLACK, strategy);
-        System.out.println("Bot set to level: " + level);
+        releaseBot();
+        this.player2 = new Player(Colors.BLACK, new ForcedWinMoveStrategy(strategy));
+        log("Bot set to level: " + level);
+    }
+
+    /**
+     * Closes the strategy of player 2, if it holds resources: its transposition table,
+     * search threads and pondering.
+     */
+    private void releaseBot() {
+        if (player2 != null && player2.getMoveStrategy() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not release the bot", e);
+            }
+        }
     }
 
     /**
@@ -422,6 +494,7 @@ public class GameModel implements Observable {
     public void restoreGameState(Player currentPlayer, TurnPhase phase) {
         this.currentPlayer = currentPlayer;
         this.currentPhase = phase;
+        turnStartNanos = System.nanoTime();
         notifyObservers("CURRENT_PLAYER_CHANGED", currentPlayer);
         notifyObservers("PHASE_CHANGED", phase);
     }
@@ -453,6 +526,34 @@ public class GameModel implements Observable {
         }
     }
 
+    /**
+     * Sets the time control of the game: the bots' budget, and with a game clock the
+     * clocks of both players. The clocks restart at the next game.
+     *
+     * @param timeControl the time control
+     */
+    public void setTimeControl(TimeControl timeControl) {
+        this.timeControl = timeControl;
+    }
+
+    /**
+     * Turns the progress messages printed on the console on or off, for instance to
+     * play games headless (see {@link Tournament}).
+     *
+     * @param verbose true to print the messages, the default
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    public TimeControl getTimeControl() { return timeControl; }
+    public boolean isVerbose() { return verbose; }
     public Player getCurrentPlayer() { return currentPlayer; }
     public Player getPlayer1() { return player1; }
     public Player getPlayer2() { return player2; }
@@ -492,16 +593,38 @@ public class GameModel implements Observable {
     }
 
     public void setLastMovedSymbol(Symbol symbol) { this.lastMovedSymbol = symbol; }
-    public int getEmptyCellsCount() {
-        int count = 0;
-        int boardSize = board.getSize();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Position pos = new Position(i, j);
-                if (board.isEmpty(pos)) count++;
-            }
+    public int getEmptyCellsCount() { return board.getEmptyCellCount(); }
+    /**
+     * Takes a snapshot of the game for move searches.
+     * The snapshot owns a copy of the board, so searching it never changes this game.
+     *
+     * @return the search state of the current position
+     */
+    public SearchState createSearchState() {
+        BagPiece pink = player1.getBag();
+        BagPiece black = player2.getBag();
+        return new SearchState(board,
+                pink.countSymbol(Symbol.X), pink.countSymbol(Symbol.O),
+                black.countSymbol(Symbol.X), black.countSymbol(Symbol.O),
+                currentPlayer.getColor(), currentPhase, lastMovedSymbol);
+    }
+
+    /**
+     * Returns the Zobrist key of the current position.
+     * It mixes the board key, both bags, the player to move and the turn phase, with
+     * the symbol of the totem moved while a token is to be placed.
+     *
+     * @return the key of the position
+     */
+    public long getPositionKey() {
+        long key = board.getZobristKey()
+                ^ player1.getBag().getZobristKey()
+                ^ player2.getBag().getZobristKey()
+                ^ Zobrist.phaseKey(currentPhase, lastMovedSymbol);
+        if (currentPlayer.getColor() == Colors.BLACK) {
+            key ^= Zobrist.sideToMoveKey();
         }
-        return count;
+        return key;
     }
     public int getRemainingTokensForPlayer(Player player, Symbol symbol) {
         return player.getBag().countSymbol(symbol);
@@ -5,17 +5,24 @@ import java.util.List;
 
 public class GameRules {
 
-    private static final int[][] DIRECTIONS = {{0,1},{1,0},{0,-1},{-1,0}};
+    private static final int[][] DIRECTIONS = BoardGeometry.DIRECTIONS;
 
 
     public static boolean isEnclaved(Board board, Position pos) {
-        for (int[] dir : DIRECTIONS) {
-            Position adjacent = new Position(pos.x() + dir[0], pos.y() + dir[1]);
-            if (board.isValidCoordinate(adjacent) && board.isEmpty(adjacent)) {
-                return false;
-            }
-        }
-        return true;
+        return isEnclaved(board, board.cellIndex(pos));
+    }
+
+    /**
+     * Checks if the given cell has no empty neighbour.
+     *
+     * @param board the board
+     * @param cell  the index of the cell
+     * @return true if every orthogonal neighbour is occupied
+     */
+    public static boolean isEnclaved(Board board, int cell) {
+        long[] neighbours = board.getGeometry().neighbourMasks;
+        return (neighbours[2 * cell] & ~board.occupiedWord(0)) == 0
+                && (neighbours[2 * cell + 1] & ~board.occupiedWord(1)) == 0;
     }
 
     public static boolean isRectilinearMove(Position start, Position target) {
@@ -24,46 +31,54 @@ public class GameRules {
 
 
     public static boolean isPathClear(Board board, Position start, Position target) {
-        int stepX = Integer.compare(target.x(), start.x());
-        int stepY = Integer.compare(target.y(), start.y());
-
-        int currentX = start.x() + stepX;
-        int currentY = start.y() + stepY;
+        if (start.equals(target)) {
+            return true;
+        }
+        int direction = BoardGeometry.directionIndex(Integer.compare(target.x(), start.x()),
+                Integer.compare(target.y(), start.y()));
+        int end = board.cellIndex(target);
 
-        while (currentX != target.x() || currentY != target.y()) {
-            if (board.getPiece(new Position(currentX, currentY)) != null) {
+        for (int cell : board.getGeometry().rays[board.cellIndex(start)][direction]) {
+            if (cell == end) {
+                return true;
+            }
+            if (board.isOccupied(cell)) {
                 return false;
             }
-            currentX += stepX;
-            currentY += stepY;
         }
         return true;
     }
 
 
     public static Position handleEnclavedJump(Board board, Totem totem, Position start, int[] direction) {
-        int dx = direction[0];
-        int dy = direction[1];
-        int x = start.x() + dx;
-        int y = start.y() + dy;
-
-        while (board.isValidCoordinate(new Position(x, y))) {
-            Position current = new Position(x, y);
-            Piece piece = board.getPiece(current);
+        int cell = enclavedJumpTarget(board, totem.getSymbol(), board.cellIndex(start),
+                BoardGeometry.directionIndex(direction[0], direction[1]));
+        return cell < 0 ? null : board.positionOf(cell);
+    }
 
-            if (piece == null) {
-                return current;
+    /**
+     * Finds the first empty cell reached by an enclaved totem jumping in one direction.
+     * The totem may only jump over the other totem and tokens of its own symbol.
+     *
+     * @param board     the board
+     * @param symbol    the symbol of the totem
+     * @param start     the cell of the totem
+     * @param direction the index of the direction in BoardGeometry.DIRECTIONS
+     * @return the landing cell, or -1 if there is none
+     */
+    public static int enclavedJumpTarget(Board board, Symbol symbol, int start, int direction) {
+        for (int cell : board.getGeometry().rays[start][direction]) {
+            int w = cell >>> 6;
+            long bit = 1L << cell;
+            if ((board.occupiedWord(w) & bit) == 0) {
+                return cell;
             }
-
-            if (!(piece.getColor() == totem.getColor() || piece.getSymbol() == totem.getSymbol())) {
+            if (((board.totemWord(w) | board.symbolWord(symbol, w)) & bit) == 0) {
                 break;
             }
-
-            x += dx;
-            y += dy;
         }
 
-        return null;
+        return -1;
     }
 
 
@@ -104,59 +119,146 @@ public class GameRules {
 
 
     public static List<Position> getValidTotemPositions(Board board, Totem totem) {
-        List<Position> validMoves = new ArrayList<>();
-        Position start = board.findTotemPosition(totem);
+        int[] targets = new int[board.getCellCount()];
+        int count = generateTotemTargets(board, totem.getSymbol(), targets, 0);
+        return toPositions(board, targets, count);
+    }
+
+    /**
+     * Writes the cells the totem with the given symbol can move to into a buffer.
+     * An enclaved totem jumps, otherwise it slides in straight lines.
+     * Nothing is allocated, so the same buffer can be reused across calls.
+     *
+     * @param board  the board
+     * @param symbol the symbol of the totem
+     * @param buffer the caller-owned buffer, with room for at least 2 * (size - 1) cells after offset
+     * @param offset the index of the first entry to write
+     * @return the index after the last entry written
+     */
+    public static int generateTotemTargets(Board board, Symbol symbol, int[] buffer, int offset) {
+        int start = board.findTotemCell(symbol);
+        int count = offset;
 
         if (isEnclaved(board, start)) {
-            for (int[] dir : DIRECTIONS) {
-                Position finalPos = handleEnclavedJump(board, totem, start, dir);
-                if (finalPos != null) {
-                    validMoves.add(finalPos);
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int finalCell = enclavedJumpTarget(board, symbol, start, d);
+                if (finalCell >= 0) {
+                    buffer[count++] = finalCell;
                 }
             }
-            return validMoves;
+            return count;
         }
 
-        for (int[] dir : DIRECTIONS) {
-            int x = start.x() + dir[0];
-            int y = start.y() + dir[1];
-            while (board.isValidCoordinate(new Position(x,y))) {
-                Position current = new Position(x,y);
-                if (board.getPiece(current) != null) {
+        for (int[] ray : board.getGeometry().rays[start]) {
+            for (int cell : ray) {
+                if (board.isOccupied(cell)) {
                     break;
                 }
-                validMoves.add(current);
-                x += dir[0];
-                y += dir[1];
+                buffer[count++] = cell;
             }
         }
-        return validMoves;
+        return count;
     }
 
 
     public static List<Position> getValidTokenPositionsForPosition(Board board, Position totemPos) {
-        List<Position> validPositions = new ArrayList<>();
+        int[] targets = new int[board.getCellCount()];
+        int count = generateTokenTargets(board, board.cellIndex(totemPos), targets, 0);
+        return toPositions(board, targets, count);
+    }
+
+    /**
+     * Writes the cells where a token can be placed next to a totem into a buffer.
+     * When the totem has no empty neighbour, every empty cell of the board is valid.
+     * Nothing is allocated, so the same buffer can be reused across calls.
+     *
+     * @param board     the board
+     * @param totemCell the cell of the totem that was moved
+     * @param buffer    the caller-owned buffer, with room for at least getCellCount() cells after offset
+     * @param offset    the index of the first entry to write
+     * @return the index after the last entry written
+     */
+    public static int generateTokenTargets(Board board, int totemCell, int[] buffer, int offset) {
+        int count = offset;
+
+        for (int cell : board.getGeometry().neighbours[totemCell]) {
+            if (!board.isOccupied(cell)) {
+                buffer[count++] = cell;
+            }
+        }
+
+        if (count == offset) {
+            for (int w = 0; w < Board.WORDS; w++) {
+                long empty = emptyWord(board, w);
+                while (empty != 0) {
+                    buffer[count++] = (w << 6) + Long.numberOfTrailingZeros(empty);
+                    empty &= empty - 1;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Appends every legal full turn to a move list: a totem move followed by the
+     * placement of a token with the same symbol. A symbol whose tokens are all used
+     * is skipped. The board is not modified; the token targets are computed as if the
+     * totem already stood on its target cell.
+     *
+     * @param board   the board
+     * @param xTokens the number of X tokens left to the player to move
+     * @param oTokens the number of O tokens left to the player to move
+     * @param moves   the list receiving the packed turns (see {@link MoveCodec})
+     */
+    public static void generateTurns(Board board, int xTokens, int oTokens, MoveList moves) {
+        if (xTokens > 0) {
+            generateTurns(board, Symbol.X, moves);
+        }
+        if (oTokens > 0) {
+            generateTurns(board, Symbol.O, moves);
+        }
+    }
+
+    private static void generateTurns(Board board, Symbol symbol, MoveList moves) {
+        int[] targets = moves.targets;
+        int from = board.findTotemCell(symbol);
+        int count = generateTotemTargets(board, symbol, targets, 0);
+        for (int i = 0; i < count; i++) {
+            addTokenTargets(board, symbol, from, targets[i], moves);
+        }
+    }
+
+    private static void addTokenTargets(Board board, Symbol symbol, int from, int to, MoveList moves) {
+        int before = moves.size();
 
-        for (int[] dir : DIRECTIONS) {
-            Position adj = new Position(totemPos.x() + dir[0], totemPos.y() + dir[1]);
-            if (board.isValidCoordinate(adj) && board.isEmpty(adj)) {
-                validPositions.add(adj);
+        for (int cell : board.getGeometry().neighbours[to]) {
+            if (cell == from || !board.isOccupied(cell)) {
+                moves.add(MoveCodec.encode(symbol, to, cell));
             }
         }
 
-        if (validPositions.isEmpty() && isEnclaved(board, totemPos)) {
-            int boardSize = board.getSize();
-            for (int i = 0; i < boardSize; i++) {
-                for (int j = 0; j < boardSize; j++) {
-                    Position pos = new Position(i, j);
-                    if (board.isEmpty(pos)) {
-                        validPositions.add(pos);
+        if (moves.size() == before) {
+            moves.add(MoveCodec.encode(symbol, to, from));
+            for (int w = 0; w < Board.WORDS; w++) {
+                long empty = emptyWord(board, w);
+                while (empty != 0) {
+                    int cell = (w << 6) + Long.numberOfTrailingZeros(empty);
+                    if (cell != to) {
+                        moves.add(MoveCodec.encode(symbol, to, cell));
                     }
+                    empty &= empty - 1;
                 }
             }
         }
+    }
 
-        return validPositions;
+    private static List<Position> toPositions(Board board, int[] cells, int count) {
+        List<Position> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(board.positionOf(cells[i]));
+        }
+        return positions;
     }
 
 
@@ -182,90 +284,110 @@ public class GameRules {
 
 
 
+    /**
+     * Checks if four tokens of the same color or of the same symbol are aligned
+     * horizontally or vertically anywhere on the board.
+     * Each token bitboard is tested with shift-and-mask operations.
+     *
+     * @param board the board
+     * @return true if an alignment exists
+     */
     public static boolean checkWin(Board board) {
-        int boardSize = board.getSize();
-
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Position pos = new Position(i, j);
-                if (board.isEmpty(pos)) continue;
-
-                Piece piece = board.getPiece(pos);
-                if (piece instanceof Totem) continue;
-
-                if (checkColorAlignment(board, pos, 1, 0) ||
-                        checkColorAlignment(board, pos, 0, 1) ||
-                        checkSymbolAlignment(board, pos, 1, 0) ||
-                        checkSymbolAlignment(board, pos, 0, 1)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        BoardGeometry geometry = board.getGeometry();
+        return hasFourInRow(geometry, board.colorWord(Colors.PINK, 0), board.colorWord(Colors.PINK, 1))
+                || hasFourInRow(geometry, board.colorWord(Colors.BLACK, 0), board.colorWord(Colors.BLACK, 1))
+                || hasFourInRow(geometry, board.symbolWord(Symbol.X, 0), board.symbolWord(Symbol.X, 1))
+                || hasFourInRow(geometry, board.symbolWord(Symbol.O, 0), board.symbolWord(Symbol.O, 1));
     }
 
 
-    private static boolean checkColorAlignment(Board board, Position start, int dx, int dy) {
-        Piece startPiece = board.getPiece(start);
-        if (startPiece instanceof Totem) {
+    /**
+     * Checks if the token in the given cell is part of an alignment.
+     * Only the row and the column of the cell are evaluated, through the per-line
+     * masks kept by the board, so the check costs the same on every board size.
+     * On a board without alignment before the token was placed, this gives the
+     * same answer as {@link #checkWin(Board)}.
+     *
+     * @param board the board
+     * @param cell  the index of the cell that just received a token
+     * @return true if the token completes an alignment
+     */
+    public static boolean checkWinAt(Board board, int cell) {
+        Piece piece = board.getPiece(cell);
+        if (piece == null || piece instanceof Totem) {
             return false;
         }
+        BoardGeometry geometry = board.getGeometry();
+        int x = geometry.rowOf[cell];
+        int y = geometry.columnOf[cell];
+        int colorLine = piece.getColor() == Colors.PINK ? Board.PINK_LINE : Board.BLACK_LINE;
+        int symbolLine = piece.getSymbol() == Symbol.X ? Board.X_LINE : Board.O_LINE;
+        return hasFourInLine(board.rowLine(colorLine, x))
+                || hasFourInLine(board.columnLine(colorLine, y))
+                || hasFourInLine(board.rowLine(symbolLine, x))
+                || hasFourInLine(board.columnLine(symbolLine, y));
+    }
 
-        Colors targetColors = startPiece.getColor();
-
-        for (int step = 0; step < 4; step++) {
-            int x = start.x() + step * dx;
-            int y = start.y() + step * dy;
-            Position pos = new Position(x, y);
-
-            if (!board.isValidCoordinate(pos)) {
-                return false;
-            }
-
-            Piece piece = board.getPiece(pos);
-            if (piece == null || piece instanceof Totem || piece.getColor() != targetColors) {
-                return false;
-            }
-        }
+    /**
+     * Checks if a token placed in an empty cell would complete an alignment, without
+     * placing it. Totems are not part of any alignment, so moving one first changes nothing.
+     *
+     * @param board  the board
+     * @param cell   the index of the empty cell
+     * @param colors the color of the token
+     * @param symbol the symbol of the token
+     * @return true if the token would win
+     */
+    public static boolean completesAlignment(Board board, int cell, Colors colors, Symbol symbol) {
+        BoardGeometry geometry = board.getGeometry();
+        int x = geometry.rowOf[cell];
+        int y = geometry.columnOf[cell];
+        int colorLine = colors == Colors.PINK ? Board.PINK_LINE : Board.BLACK_LINE;
+        int symbolLine = symbol == Symbol.X ? Board.X_LINE : Board.O_LINE;
+        int rowBit = 1 << y;
+        int columnBit = 1 << x;
+        return hasFourInLine(board.rowLine(colorLine, x) | rowBit)
+                || hasFourInLine(board.columnLine(colorLine, y) | columnBit)
+                || hasFourInLine(board.rowLine(symbolLine, x) | rowBit)
+                || hasFourInLine(board.columnLine(symbolLine, y) | columnBit);
+    }
 
-        return true;
+    private static boolean hasFourInLine(int line) {
+        int pairs = line & (line >>> 1);
+        return (pairs & (pairs >>> 2)) != 0;
     }
 
-    private static boolean checkSymbolAlignment(Board board, Position start, int dx, int dy) {
-        Piece startPiece = board.getPiece(start);
-        if (startPiece instanceof Totem) {
-            return false;
+    private static boolean hasFourInRow(BoardGeometry geometry, long lo, long hi) {
+        int size = geometry.size;
+        long pairLo = lo & shiftRight(lo, hi, 1);
+        long pairHi = hi & (hi >>> 1);
+        long fourLo = pairLo & shiftRight(pairLo, pairHi, 2);
+        long fourHi = pairHi & (pairHi >>> 2);
+        long[] rowStarts = geometry.rowStarts;
+        if ((fourLo & rowStarts[0]) != 0 || (fourHi & rowStarts[1]) != 0) {
+            return true;
         }
 
-        Symbol targetSymbol = startPiece.getSymbol();
-
-        for (int step = 0; step < 4; step++) {
-            int x = start.x() + step * dx;
-            int y = start.y() + step * dy;
-            Position pos = new Position(x, y);
-
-            if (!board.isValidCoordinate(pos)) return false;
+        pairLo = lo & shiftRight(lo, hi, size);
+        pairHi = hi & (hi >>> size);
+        fourLo = pairLo & shiftRight(pairLo, pairHi, 2 * size);
+        fourHi = pairHi & (pairHi >>> (2 * size));
+        return (fourLo | fourHi) != 0;
+    }
 
-            Piece piece = board.getPiece(pos);
-            if (piece == null || piece instanceof Totem || piece.getSymbol() != targetSymbol) {
-                return false;
-            }
-        }
+    /**
+     * Returns the low word of a two-word bitboard shifted right by 1 to 63 bits.
+     */
+    private static long shiftRight(long lo, long hi, int bits) {
+        return (lo >>> bits) | (hi << (64 - bits));
+    }
 
-        return true;
+    private static long emptyWord(Board board, int word) {
+        return ~board.occupiedWord(word) & board.getGeometry().cellMask[word];
     }
 
 
     public static boolean isMovePossible(Board board) {
-        int boardSize = board.getSize();
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Position pos = new Position(i, j);
-                if (board.isEmpty(pos)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return board.getEmptyCellCount() > 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy SMP: several {@link AlphaBetaSearch} threads search the same root and only
+ * talk through a shared {@link TranspositionTable}.
+ * The calling thread runs the main search, whose result is the one played; helpers
+ * run on a {@link ForkJoinPool}, odd helpers one iteration ahead of the others,
+ * and fill the table with results the main search then finds ready.
+ * Helpers are stopped as soon as the main search is done.
+ */
+public class LazySmpSearch implements AutoCloseable {
+    private final int threads;
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+
+    private volatile AlphaBetaSearch main;
+    private volatile boolean stopRequested;
+    private long nodes;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param threads the number of searching threads, the calling one included
+     * @param table   the shared transposition table
+     */
+    public LazySmpSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.threads = threads;
+        this.table = table;
+        this.pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+    }
+
+    /**
+     * Searches a position until the depth or the time limit is reached by the main search.
+     * The state is played on by the calling thread and restored; helpers use copies.
+     *
+     * @param state           the root position
+     * @param maxDepth        the deepest iteration
+     * @param timeLimitMillis the time budget, in milliseconds
+     * @return the best packed move of the main search
+     */
+    public int search(SearchState state, int maxDepth, long timeLimitMillis) {
+        main = new AlphaBetaSearch(state, table);
+        if (stopRequested) {
+            main.stop();
+        }
+        List<AlphaBetaSearch> helpers = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            AlphaBetaSearch helper = new AlphaBetaSearch(state.copy(), table);
+            int startDepth = 1 + (i & 1);
+            helpers.add(helper);
+            futures.add(pool.submit(() -> helper.search(startDepth, maxDepth, AlphaBetaSearch.NO_TIME_LIMIT)));
+        }
+
+        int move;
+        try {
+            move = main.search(maxDepth, timeLimitMillis);
+        } finally {
+            helpers.forEach(AlphaBetaSearch::stop);
+            join(futures);
+        }
+
+        nodes = main.getNodes();
+        for (AlphaBetaSearch helper : helpers) {
+            nodes += helper.getNodes();
+        }
+        return move;
+    }
+
+    /**
+     * Stops the running search, from any thread.
+     * The request also holds for the next searches, until {@link #clearStop()}.
+     */
+    public void stop() {
+        stopRequested = true;
+        AlphaBetaSearch current = main;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    /**
+     * Forgets a stop request, before a new move.
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    private static void join(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the main search of the last call, which holds its depth, score and
+     * principal variation.
+     *
+     * @return the main search, or null before the first call
+     */
+    public AlphaBetaSearch getMainSearch() {
+        return main;
+    }
+
+    /**
+     * Returns the nodes searched by every thread during the last call.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getThreads() { return threads; }
+    public TranspositionTable getTable() { return table; }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+
+/**
+ * Bot that picks its move with a {@link MctsSearch}.
+ * The search stops after a number of playouts or a time budget, whichever comes
+ * first. The tree is allocated once and reused from one move to the next.
+ */
+public class MctsMoveStrategy implements AnytimeMoveStrategy {
+    /** Default time budget of a move, in milliseconds. */
+    public static final long DEFAULT_TIME_LIMIT = 1000;
+
+    private final long maxPlayouts;
+    private final long timeLimitMillis;
+    private final MctsSearch search;
+
+    public MctsMoveStrategy() {
+        this(Long.MAX_VALUE, DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Creates the strategy with explicit limits.
+     *
+     * @param maxPlayouts     the number of playouts of a move
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     */
+    public MctsMoveStrategy(long maxPlayouts, long timeLimitMillis) {
+        this(maxPlayouts, timeLimitMillis, new MctsSearch());
+    }
+
+    /**
+     * Creates the strategy on a given search, for a custom tree size, exploration
+     * constant or random seed.
+     *
+     * @param maxPlayouts     the number of playouts of a move
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     * @param search          the search
+     */
+    public MctsMoveStrategy(long maxPlayouts, long timeLimitMillis, MctsSearch search) {
+        if (maxPlayouts < 1) {
+            throw new IllegalArgumentException("At least one playout is needed");
+        }
+        this.maxPlayouts = maxPlayouts;
+        this.timeLimitMillis = timeLimitMillis;
+        this.search = search;
+    }
+
+    @Override
+    public Move calculateMove(GameModel gameModel) {
+        return MoveCodec.decode(calculatePackedMove(gameModel), gameModel.getBoardSize());
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel) {
+        return calculatePackedMove(gameModel, timeLimitMillis);
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+        return search.search(gameModel.createSearchState(), maxPlayouts, timeLimitMillis);
+    }
+
+    @Override
+    public void play(GameModel gameModel) {
+    }
+
+    @Override
+    public void stop() {
+        search.stop();
+    }
+
+    @Override
+    public void clearStop() {
+        search.clearStop();
+    }
+
+    /**
+     * Describes the last search: playouts, tree size, speed and expected score.
+     *
+     * @return the text of the report
+     */
+    public String getSearchReport() {
+        return String.format("playouts %d nodes %d (%.0f playouts/s) score %.3f",
+                search.getPlayouts(), search.getNodeCount(), search.getPlayoutsPerSecond(),
+                search.getBestMoveScore());
+    }
+
+    public MctsSearch getSearch() { return search; }
+}
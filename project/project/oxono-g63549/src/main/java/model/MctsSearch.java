@@ -0,0 +1,345 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Monte Carlo tree search with UCT selection over full turns.
+ * The tree is stored in parallel primitive arrays indexed by node, and the children
+ * of a node take one contiguous block, so a node costs 19 bytes and a million-node
+ * tree stays under 20 MB. Once the tree is full, leaves are no longer expanded and
+ * the search carries on with playouts alone.
+ * Playouts play uniformly random turns on a {@link SearchState} until a win or until
+ * the player to move has no turn left, which is a draw.
+ * Results are kept in half points (win 2, draw 1, loss 0) for the player who made the
+ * move leading to each node.
+ */
+public class MctsSearch {
+    /** Default UCT exploration constant. */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+    /** Default number of nodes of a tree. */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final byte OPEN = 0;
+    private static final byte WON = 1;
+    private static final byte NO_MOVES = 2;
+    static final int MAX_PLIES = 128;
+
+    private final int capacity;
+    private final double exploration;
+    private final SplittableRandom random;
+
+    private final int[] moves;
+    private final int[] firstChild;
+    private final short[] childCount;
+    private final int[] visits;
+    private final int[] scores;
+    private final byte[] status;
+    private int nodeCount;
+
+    private final int[] path = new int[MAX_PLIES + 1];
+    private final Colors[] movers = new Colors[MAX_PLIES + 1];
+    private final int[] played = new int[MAX_PLIES];
+    private final MoveList moveList = new MoveList();
+
+    private long playouts;
+    private long elapsedNanos;
+    private volatile boolean stopRequested;
+
+    public MctsSearch() {
+        this(DEFAULT_CAPACITY, DEFAULT_EXPLORATION, new SplittableRandom());
+    }
+
+    /**
+     * Creates a search with its own tree.
+     *
+     * @param capacity    the maximum number of nodes
+     * @param exploration the UCT exploration constant
+     * @param random      the source of the playouts and of nothing else
+     */
+    public MctsSearch(int capacity, double exploration, SplittableRandom random) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.exploration = exploration;
+        this.random = random;
+        this.moves = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new short[capacity];
+        this.visits = new int[capacity];
+        this.scores = new int[capacity];
+        this.status = new byte[capacity];
+    }
+
+    /**
+     * Searches a position until the playout budget or the time budget is spent.
+     * The state is played on and restored.
+     *
+     * @param state           the root position
+     * @param maxPlayouts     the number of playouts
+     * @param timeLimitMillis the time budget, in milliseconds
+     * @return the best packed move, or MoveCodec.NO_MOVE if the side to move has no move
+     */
+    public int search(SearchState state, long maxPlayouts, long timeLimitMillis) {
+        long start = System.nanoTime();
+        long deadline = TimeControl.deadline(start, timeLimitMillis);
+        reset();
+
+        while (playouts < maxPlayouts && System.nanoTime() < deadline && !stopRequested) {
+            iterate(state);
+            if (status[0] == NO_MOVES) {
+                break;
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        if (firstChild[0] < 0 && status[0] == OPEN) {
+            moveList.clear();
+            state.generateMoves(moveList);
+            return moveList.isEmpty() ? MoveCodec.NO_MOVE : moveList.get(0);
+        }
+        return getBestMove();
+    }
+
+    private void reset() {
+        nodeCount = 1;
+        moves[0] = MoveCodec.NO_MOVE;
+        clearNode(0);
+        playouts = 0;
+    }
+
+    private void clearNode(int node) {
+        firstChild[node] = -1;
+        childCount[node] = 0;
+        visits[node] = 0;
+        scores[node] = 0;
+        status[node] = OPEN;
+    }
+
+    /**
+     * Runs one selection, expansion, playout and backpropagation.
+     */
+    private void iterate(SearchState state) {
+        int node = 0;
+        int depth = 0;
+        path[0] = 0;
+        Colors winner = null;
+        boolean finished = false;
+
+        while (!finished) {
+            if (status[node] == WON) {
+                winner = movers[depth];
+                finished = true;
+            } else if (status[node] == NO_MOVES) {
+                finished = true;
+            } else if (firstChild[node] < 0 && !((node == 0 || visits[node] > 0) && expand(state, node))) {
+                if (status[node] != NO_MOVES) {
+                    winner = playout(state, depth, played, moveList, random);
+                }
+                finished = true;
+            } else {
+                int child = selectChild(node);
+                Colors mover = state.getSideToMove();
+                played[depth] = moves[child];
+                depth++;
+                path[depth] = child;
+                movers[depth] = mover;
+                node = child;
+                if (state.make(moves[child])) {
+                    status[child] = WON;
+                }
+            }
+        }
+
+        visits[0]++;
+        for (int i = 1; i <= depth; i++) {
+            int n = path[i];
+            visits[n]++;
+            scores[n] += winner == null ? 1 : winner == movers[i] ? 2 : 0;
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            state.unmake(played[i]);
+        }
+        playouts++;
+    }
+
+    /**
+     * Gives a node one child per legal move.
+     *
+     * @return false if the node has no move or the tree has no room for its children
+     */
+    private boolean expand(SearchState state, int node) {
+        moveList.clear();
+        state.generateMoves(moveList);
+        int count = moveList.size();
+        if (count == 0) {
+            status[node] = NO_MOVES;
+            return false;
+        }
+        if (nodeCount + count > capacity) {
+            return false;
+        }
+        firstChild[node] = nodeCount;
+        childCount[node] = (short) count;
+        for (int i = 0; i < count; i++) {
+            moves[nodeCount] = moveList.get(i);
+            clearNode(nodeCount);
+            nodeCount++;
+        }
+        return true;
+    }
+
+    /**
+     * Picks the child with the best UCT value. Unvisited children come first and a
+     * winning move is always taken.
+     */
+    private int selectChild(int node) {
+        int first = firstChild[node];
+        int end = first + childCount[node];
+        double logVisits = Math.log(Math.max(visits[node], 1));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < end; child++) {
+            if (status[child] == WON || visits[child] == 0) {
+                return child;
+            }
+            double value = scores[child] / (2.0 * visits[child])
+                    + exploration * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays random turns from the current position, then takes them back.
+     *
+     * @param state    the position
+     * @param ply      the number of turns already played on the state
+     * @param played   the buffer of played moves, filled from index ply
+     * @param moveList a scratch move list
+     * @param random   the source of the random turns
+     * @return the winner, or null for a draw
+     */
+    static Colors playout(SearchState state, int ply, int[] played, MoveList moveList, SplittableRandom random) {
+        int count = 0;
+        Colors winner = null;
+        while (ply + count < MAX_PLIES) {
+            moveList.clear();
+            state.generateMoves(moveList);
+            if (moveList.isEmpty()) {
+                break;
+            }
+            int move = moveList.get(random.nextInt(moveList.size()));
+            Colors mover = state.getSideToMove();
+            played[ply + count++] = move;
+            if (state.make(move)) {
+                winner = mover;
+                break;
+            }
+        }
+        for (int i = ply + count - 1; i >= ply; i--) {
+            state.unmake(played[i]);
+        }
+        return winner;
+    }
+
+    /**
+     * Returns the root move to play after the last search: a winning move if one is
+     * known, otherwise the most visited one.
+     *
+     * @return the packed move, or MoveCodec.NO_MOVE if the root was not expanded
+     */
+    public int getBestMove() {
+        int first = firstChild[0];
+        if (first < 0) {
+            return MoveCodec.NO_MOVE;
+        }
+        int best = first;
+        for (int child = first; child < first + childCount[0]; child++) {
+            if (status[child] == WON) {
+                return moves[child];
+            }
+            if (visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Returns the visit count of every root move, in generation order.
+     *
+     * @return pairs of packed move and visit count
+     */
+    public int[][] getRootStatistics() {
+        int first = Math.max(firstChild[0], 0);
+        int[][] statistics = new int[childCount[0]][];
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new int[]{moves[first + i], visits[first + i]};
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the share of points won by the player to move with the chosen move.
+     *
+     * @return the expected score, between 0 and 1
+     */
+    public double getBestMoveScore() {
+        int move = getBestMove();
+        int first = firstChild[0];
+        for (int child = first; move != MoveCodec.NO_MOVE && child < first + childCount[0]; child++) {
+            if (moves[child] == move) {
+                return status[child] == WON ? 1.0 : scores[child] / (2.0 * Math.max(visits[child], 1));
+            }
+        }
+        return 0.5;
+    }
+
+    /**
+     * Asks the running search to return its best move after the current playout.
+     * The request also holds for the next searches, until {@link #clearStop()}.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets a stop request, before a new move. A search does not do it by itself, so a
+     * stop sent just before it starts still applies.
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Checks if the chosen move wins on the spot.
+     *
+     * @return true if a winning root move was found
+     */
+    public boolean isWinFound() {
+        int first = firstChild[0];
+        for (int child = first; first >= 0 && child < first + childCount[0]; child++) {
+            if (status[child] == WON) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getPlayouts() { return playouts; }
+    public int getNodeCount() { return nodeCount; }
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Returns the playout rate of the last search.
+     *
+     * @return playouts per second
+     */
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+    }
+}
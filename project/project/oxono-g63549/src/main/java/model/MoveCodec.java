@@ -0,0 +1,128 @@
+package model;
+
+/**
+ * Packs a full Oxono turn into a single {@code int}.
+ * Bits 0-6 hold the token cell, bits 7-13 the totem target cell and bit 14 the
+ * symbol of the moved totem (which is also the symbol of the placed token).
+ * Cells are board indices ({@code x * size + y}), so any board up to 10x10 fits.
+ */
+public final class MoveCodec {
+    /** Value returned when no move is available. */
+    public static final int NO_MOVE = -1;
+    /** Token cell of a turn that places no token. */
+    public static final int NO_TOKEN = 0x7F;
+
+    private static final int CELL_MASK = 0x7F;
+    private static final int TOTEM_SHIFT = 7;
+    private static final int SYMBOL_SHIFT = 14;
+
+    /** Number of distinct packed values, usable as the size of a table indexed by move. */
+    public static final int MOVE_SPACE = 1 << (SYMBOL_SHIFT + 1);
+
+    private MoveCodec() {
+    }
+
+    /**
+     * Packs a turn.
+     *
+     * @param symbol    the symbol of the moved totem and of the placed token
+     * @param totemCell the target cell of the totem
+     * @param tokenCell the cell of the token, or NO_TOKEN
+     * @return the packed turn
+     */
+    public static int encode(Symbol symbol, int totemCell, int tokenCell) {
+        return (symbol.ordinal() << SYMBOL_SHIFT) | (totemCell << TOTEM_SHIFT) | tokenCell;
+    }
+
+    /**
+     * Packs a move.
+     *
+     * @param move the move
+     * @param size the size of the board
+     * @return the packed move, or NO_MOVE if move is null
+     */
+    public static int encode(Move move, int size) {
+        if (move == null) {
+            return NO_MOVE;
+        }
+        Position token = move.getTokenTarget();
+        int tokenCell = token == null ? NO_TOKEN : token.x() * size + token.y();
+        Position totem = move.getTotemTarget();
+        return encode(move.getTokenSymbol(), totem.x() * size + totem.y(), tokenCell);
+    }
+
+    /**
+     * Unpacks a move.
+     *
+     * @param move the packed move
+     * @param size the size of the board
+     * @return the move, or null for NO_MOVE
+     */
+    public static Move decode(int move, int size) {
+        if (move == NO_MOVE) {
+            return null;
+        }
+        int totem = totemCell(move);
+        Position tokenTarget = hasToken(move) ? new Position(tokenCell(move) / size, tokenCell(move) % size) : null;
+        return new Move(new Position(totem / size, totem % size), tokenTarget, symbol(move));
+    }
+
+    /**
+     * Returns the symbol of a packed move.
+     *
+     * @param move the packed move
+     * @return the symbol of the totem and of the token
+     */
+    public static Symbol symbol(int move) {
+        return (move >>> SYMBOL_SHIFT) == 0 ? Symbol.X : Symbol.O;
+    }
+
+    /**
+     * Returns the totem target cell of a packed move.
+     *
+     * @param move the packed move
+     * @return the cell index
+     */
+    public static int totemCell(int move) {
+        return (move >>> TOTEM_SHIFT) & CELL_MASK;
+    }
+
+    /**
+     * Returns the token cell of a packed move.
+     *
+     * @param move the packed move
+     * @return the cell index, or NO_TOKEN
+     */
+    public static int tokenCell(int move) {
+        return move & CELL_MASK;
+    }
+
+    /**
+     * Checks if a packed move places a token.
+     *
+     * @param move the packed move
+     * @return true if the move has a token cell
+     */
+    public static boolean hasToken(int move) {
+        return tokenCell(move) != NO_TOKEN;
+    }
+
+    /**
+     * Returns a readable form of a packed move.
+     *
+     * @param move the packed move
+     * @param size the size of the board
+     * @return the text of the move
+     */
+    public static String toString(int move, int size) {
+        if (move == NO_MOVE) {
+            return "none";
+        }
+        int totem = totemCell(move);
+        String text = symbol(move) + "(" + totem / size + "," + totem % size + ")";
+        if (hasToken(move)) {
+            text += "->(" + tokenCell(move) / size + "," + tokenCell(move) % size + ")";
+        }
+        return text;
+    }
+}
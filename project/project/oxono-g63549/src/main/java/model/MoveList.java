@@ -0,0 +1,97 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of packed moves (see {@link MoveCodec}) stored in an {@code int[]}.
+ * Clearing keeps the storage, so a list reused across calls stops allocating once
+ * it reached its working size.
+ */
+public class MoveList {
+    private int[] moves;
+    private int size;
+    /** Scratch space for the target cells of one totem while moves are generated. */
+    final int[] targets = new int[100];
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends a packed move.
+     *
+     * @param move the packed move
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Returns the packed move at the given index.
+     *
+     * @param index the index
+     * @return the packed move
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the packed move at the given index.
+     *
+     * @param index the index
+     * @param move  the packed move
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Swaps two entries.
+     *
+     * @param i the first index
+     * @param j the second index
+     */
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    /**
+     * Checks if the list holds the given packed move.
+     *
+     * @param move the packed move
+     * @return true if the move is in the list
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the list, keeping its storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
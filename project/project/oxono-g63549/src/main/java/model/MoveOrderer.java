@@ -0,0 +1,160 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Orders the moves of an {@link AlphaBetaSearch} node so the best ones are tried first.
+ * The move of the previous principal variation comes first, then the move stored in
+ * the transposition table, then winning placements, then placements on a cell where
+ * the opponent would win, then the two killer moves of the ply, and finally every
+ * other move by its history score.
+ * Killers are the last quiet moves that caused a cutoff at a ply; the history score
+ * of a packed move grows with the depth of the cutoffs it caused anywhere in the tree.
+ * Moves are scored once per node and picked one at a time, so a node cut off after
+ * its first move never pays for a full sort.
+ */
+public final class MoveOrderer {
+    private static final int PV_SCORE = Integer.MAX_VALUE;
+    private static final int TABLE_SCORE = PV_SCORE - 1;
+    private static final int WIN_SCORE = 1 << 30;
+    private static final int BLOCK_SCORE = 1 << 29;
+    private static final int KILLER_SCORE = 1 << 28;
+    /** History scores are halved when one of them reaches this value. */
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final int[][] killers = new int[AlphaBetaSearch.MAX_DEPTH + 1][2];
+    private final int[] history = new int[MoveCodec.MOVE_SPACE];
+    private final int[][] scores = new int[AlphaBetaSearch.MAX_DEPTH + 1][64];
+
+    public MoveOrderer() {
+        clear();
+    }
+
+    /**
+     * Scores the moves of a node. They are then read through {@link #pick}.
+     *
+     * @param state     the position of the node
+     * @param moves     the legal moves of the node
+     * @param ply       the distance of the node to the root
+     * @param pvMove    the move of the previous principal variation, or MoveCodec.NO_MOVE
+     * @param tableMove the move of the transposition table, or MoveCodec.NO_MOVE
+     */
+    public void score(SearchState state, MoveList moves, int ply, int pvMove, int tableMove) {
+        int size = moves.size();
+        if (scores[ply].length < size) {
+            scores[ply] = new int[Math.max(size, 2 * scores[ply].length)];
+        }
+        int[] plyScores = scores[ply];
+        Board board = state.getBoard();
+        Colors side = state.getSideToMove();
+        Colors opponent = SearchState.opponent(side);
+        boolean opponentX = state.tokens(opponent, Symbol.X) > 0;
+        boolean opponentO = state.tokens(opponent, Symbol.O) > 0;
+        int[] plyKillers = killers[ply];
+
+        for (int i = 0; i < size; i++) {
+            int move = moves.get(i);
+            int score;
+            if (move == pvMove) {
+                score = PV_SCORE;
+            } else if (move == tableMove) {
+                score = TABLE_SCORE;
+            } else if (!MoveCodec.hasToken(move)) {
+                score = history[move];
+            } else {
+                int cell = MoveCodec.tokenCell(move);
+                if (GameRules.completesAlignment(board, cell, side, MoveCodec.symbol(move))) {
+                    score = WIN_SCORE;
+                } else if (opponentX && GameRules.completesAlignment(board, cell, opponent, Symbol.X)
+                        || opponentO && GameRules.completesAlignment(board, cell, opponent, Symbol.O)) {
+                    score = BLOCK_SCORE + history[move];
+                } else if (move == plyKillers[0]) {
+                    score = KILLER_SCORE + 1;
+                } else if (move == plyKillers[1]) {
+                    score = KILLER_SCORE;
+                } else {
+                    score = history[move];
+                }
+            }
+            plyScores[i] = score;
+        }
+    }
+
+    /**
+     * Brings the best move not tried yet to a given index of the list and returns it.
+     *
+     * @param moves the moves scored by the last call to {@link #score} for this ply
+     * @param ply   the distance of the node to the root
+     * @param index the number of moves already tried
+     * @return the move to try next
+     */
+    public int pick(MoveList moves, int ply, int index) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = plyScores[index];
+            plyScores[index] = plyScores[best];
+            plyScores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff.
+     *
+     * @param move  the packed move
+     * @param ply   the distance of the node to the root
+     * @param depth the remaining depth of the node
+     */
+    public void recordCutoff(int move, int ply, int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        history[move] += depth * depth;
+        if (history[move] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Forgets every killer and history score.
+     */
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = MoveCodec.NO_MOVE;
+            plyKillers[1] = MoveCodec.NO_MOVE;
+        }
+        Arrays.fill(history, 0);
+    }
+
+    /**
+     * Returns the history score of a packed move.
+     *
+     * @param move the packed move
+     * @return the score
+     */
+    public int getHistory(int move) {
+        return history[move];
+    }
+
+    /**
+     * Returns a killer move of a ply.
+     *
+     * @param ply  the distance to the root
+     * @param slot 0 for the most recent killer, 1 for the previous one
+     * @return the packed move, or MoveCodec.NO_MOVE
+     */
+    public int getKiller(int ply, int slot) {
+        return killers[ply][slot];
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Read-only opening book of one board size, memory-mapped from a file written by
+ * {@link OpeningBookBuilder}.
+ * The file starts with a header (magic number, version, board size, entry count)
+ * followed by fixed-size entries sorted by position key: the canonical key of a
+ * position at the start of a turn (see {@link Symmetry}), a packed move played there in
+ * the canonical frame, the number of games that played it and the points they scored
+ * for the mover (two per win, one per draw). The symmetric images of a position share
+ * their entries, which makes the book up to 16 times smaller.
+ * A lookup binary-searches the mapped file directly (see SortedTable), so a book
+ * costs no heap memory and can be read by any number of threads.
+ * <p>
+ * The books used by the bots are {@code book-<size>.bin} in the directory given by
+ * the {@code oxono.book.dir} system property, {@code books} by default. A missing
+ * or unreadable file gives an empty book.
+ */
+public class OpeningBook {
+    /** "OXOB" in ASCII. */
+    private static final int MAGIC = 0x4F584F42;
+    private static final int VERSION = 2;
+    private static final int ENTRY_BYTES = Long.BYTES + 3 * Integer.BYTES;
+    static final SortedTable.Format FORMAT = new SortedTable.Format("opening book", "book", MAGIC, VERSION, ENTRY_BYTES);
+
+    /** Fewest games a move needs before the book plays it. */
+    public static final int MIN_GAMES = 3;
+    /** Games scoring nothing added to every move, so a move seen in few games is not trusted. */
+    private static final int PRIOR_GAMES = 4;
+
+    private final SortedTable table;
+    private final int boardSize;
+    private final int entryCount;
+
+    private OpeningBook(SortedTable table) {
+        this.table = table;
+        this.boardSize = table.getBoardSize();
+        this.entryCount = table.getEntryCount();
+    }
+
+    /**
+     * Creates a book without entries.
+     *
+     * @param boardSize the board size
+     * @return the empty book
+     */
+    public static OpeningBook empty(int boardSize) {
+        return new OpeningBook(FORMAT.empty(boardSize));
+    }
+
+    /**
+     * Maps a book file.
+     *
+     * @param file the file written by {@link OpeningBookBuilder#write(Path)}
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        return new OpeningBook(FORMAT.open(file));
+    }
+
+    /**
+     * Returns the book of a board size used by the bots, mapped on first use.
+     *
+     * @param boardSize the board size
+     * @return the book, empty if there is no readable book file for that size
+     */
+    public static OpeningBook forSize(int boardSize) {
+        return new OpeningBook(FORMAT.forSize(boardSize));
+    }
+
+    /**
+     * Looks up the best move of a position, found in its canonical frame and mapped back.
+     *
+     * @param state the position
+     * @return the packed move in the position, or MoveCodec.NO_MOVE if it is not in the book
+     */
+    public int probe(SearchState state) {
+        if (isEmpty()) {
+            return MoveCodec.NO_MOVE;
+        }
+        Symmetry.Canonical canonical = Symmetry.canonicalize(state);
+        int move = probe(canonical.key());
+        return Symmetry.mapMove(Symmetry.inverse(canonical.transform()), move, boardSize);
+    }
+
+    /**
+     * Looks up the best move of a canonical position: the one with the highest average score
+     * among the moves played in at least MIN_GAMES games. The averages count
+     * PRIOR_GAMES lost games more, so a well-tried move beats a lucky rare one.
+     *
+     * @param key the canonical key of the position (see {@link Symmetry#canonicalize(SearchState)})
+     * @return the packed move in the canonical frame, or MoveCodec.NO_MOVE if the position is not in the book
+     */
+    public int probe(long key) {
+        int bestMove = MoveCodec.NO_MOVE;
+        long bestPoints = 0;
+        long bestGames = 0;
+        for (int i = table.firstEntry(key); i < entryCount && table.keyAt(i) == key; i++) {
+            int games = table.intAt(i, Long.BYTES + Integer.BYTES);
+            int points = table.intAt(i, Long.BYTES + 2 * Integer.BYTES);
+            if (games >= MIN_GAMES && (bestMove == MoveCodec.NO_MOVE
+                    || (long) points * (bestGames + PRIOR_GAMES) > bestPoints * (games + PRIOR_GAMES))) {
+                bestMove = table.intAt(i, Long.BYTES);
+                bestPoints = points;
+                bestGames = games;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Counts the moves the book knows for a position.
+     *
+     * @param key the canonical key of the position
+     * @return the number of entries of the position
+     */
+    public int countMoves(long key) {
+        int first = table.firstEntry(key);
+        int i = first;
+        while (i < entryCount && table.keyAt(i) == key) {
+            i++;
+        }
+        return i - first;
+    }
+
+    public int getBoardSize() { return boardSize; }
+    public int getEntryCount() { return entryCount; }
+    public boolean isEmpty() { return entryCount == 0; }
+}
@@ -0,0 +1,170 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an {@link OpeningBook} offline from self-play games.
+ * Each game starts from the start position of the board size; during the first turns
+ * a move is sometimes picked at random so the games spread over several openings, the
+ * rest of the time and for the rest of the game an {@link AlphaBetaSearch} chooses.
+ * Every opening turn is counted with the points the mover finally scored, under the
+ * canonical form of its position.
+ *
+ * Usage: {@code OpeningBookBuilder [--size N] [--games G] [--plies P] [--depth D]
+ * [--explore E] [--seed S] [--out DIR]}.
+ * From Maven: {@code mvn -Pbook compile exec:exec -Dbook.args="--size 6 --games 500"}.
+ */
+public class OpeningBookBuilder {
+    /** Position key and move of a book entry. */
+    private record Line(long key, int move) {
+    }
+
+    private final int boardSize;
+    private final Map<Line, int[]> statistics = new HashMap<>();
+
+    /**
+     * Creates an empty builder.
+     *
+     * @param boardSize the board size of the book
+     */
+    public OpeningBookBuilder(int boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    /**
+     * Counts a move played in a position, under the canonical form of the position.
+     *
+     * @param state  the position, at the start of a turn
+     * @param move   the packed move
+     * @param points the points the mover scored in the game: 2 for a win, 1 for a draw, 0 for a loss
+     */
+    public void add(SearchState state, int move, int points) {
+        Symmetry.Canonical canonical = Symmetry.canonicalize(state);
+        add(canonical.key(), Symmetry.mapMove(canonical.transform(), move, boardSize), points);
+    }
+
+    /**
+     * Counts a move played in a canonical position.
+     *
+     * @param key    the canonical key of the position, at the start of a turn
+     * @param move   the packed move in the canonical frame
+     * @param points the points the mover scored in the game: 2 for a win, 1 for a draw, 0 for a loss
+     */
+    public void add(long key, int move, int points) {
+        int[] counts = statistics.computeIfAbsent(new Line(key, move), line -> new int[2]);
+        counts[0]++;
+        counts[1] += points;
+    }
+
+    /**
+     * Plays self-play games and counts their opening turns.
+     *
+     * @param games   the number of games
+     * @param plies   the number of opening turns counted per game
+     * @param depth   the search depth of every turn not picked at random
+     * @param explore the probability of a random opening turn
+     * @param random  the source of the random turns
+     */
+    public void playGames(int games, int plies, int depth, double explore, Random random) {
+        TranspositionTable table = new TranspositionTable();
+        MoveList moves = new MoveList();
+        SearchState[] positions = new SearchState[plies];
+        int[] played = new int[plies];
+        for (int game = 0; game < games; game++) {
+            SearchState state = new GameModel(boardSize).createSearchState();
+            Colors first = state.getSideToMove();
+            Colors winner = null;
+            int turns = 0;
+            while (true) {
+                moves.clear();
+                state.generateMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move;
+                if (turns < plies && random.nextDouble() < explore) {
+                    move = moves.get(random.nextInt(moves.size()));
+                } else {
+                    table.newSearch();
+                    move = new AlphaBetaSearch(state, table).search(depth, AlphaBetaSearch.NO_TIME_LIMIT);
+                }
+                if (turns < plies) {
+                    positions[turns] = state.copy();
+                    played[turns] = move;
+                }
+                Colors mover = state.getSideToMove();
+                turns++;
+                if (state.make(move)) {
+                    winner = mover;
+                    break;
+                }
+            }
+            for (int turn = 0; turn < Math.min(turns, plies); turn++) {
+                Colors mover = turn % 2 == 0 ? first : SearchState.opponent(first);
+                add(positions[turn], played[turn], winner == null ? 1 : winner == mover ? 2 : 0);
+            }
+        }
+    }
+
+    /**
+     * Writes the book, entries sorted by key.
+     *
+     * @param file the book file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        List<Map.Entry<Line, int[]>> entries = new ArrayList<>(statistics.entrySet());
+        entries.sort((a, b) -> a.getKey().key() != b.getKey().key()
+                ? Long.compare(a.getKey().key(), b.getKey().key())
+                : Integer.compare(a.getKey().move(), b.getKey().move()));
+
+        ByteBuffer buffer = OpeningBook.FORMAT.allocate(boardSize, entries.size());
+        for (Map.Entry<Line, int[]> entry : entries) {
+            buffer.putLong(entry.getKey().key())
+                    .putInt(entry.getKey().move())
+                    .putInt(entry.getValue()[0])
+                    .putInt(entry.getValue()[1]);
+        }
+        SortedTable.write(file, buffer);
+    }
+
+    public int getBoardSize() { return boardSize; }
+    public int getEntryCount() { return statistics.size(); }
+
+    public static void main(String[] args) throws IOException {
+        int size = 6;
+        int games = 200;
+        int plies = 8;
+        int depth = 3;
+        double explore = 0.15;
+        long seed = 1;
+        Path directory = Path.of("books");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--explore" -> explore = Double.parseDouble(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--out" -> directory = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        OpeningBookBuilder builder = new OpeningBookBuilder(size);
+        builder.playGames(games, plies, depth, explore, new Random(seed));
+        Path file = directory.resolve("book-" + size + ".bin");
+        builder.write(file);
+        System.out.printf("%s: %,d entries from %,d games in %.1f s%n",
+                file, builder.getEntryCount(), games, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+
+/**
+ * Bot that picks its move with a {@link ParallelMctsSearch} on several cores.
+ * The search and its pool live as long as the strategy; {@link #close()} releases them.
+ */
+public class ParallelMctsMoveStrategy implements AnytimeMoveStrategy, AutoCloseable {
+    private final long maxPlayouts;
+    private final long timeLimitMillis;
+    private final ParallelMctsSearch search;
+
+    /**
+     * Creates a tree-parallel strategy using every core, with the default time budget.
+     */
+    public ParallelMctsMoveStrategy() {
+        this(ParallelMctsSearch.Mode.TREE, Runtime.getRuntime().availableProcessors(),
+                Long.MAX_VALUE, MctsMoveStrategy.DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Creates the strategy with explicit settings.
+     *
+     * @param mode            root or tree parallelization
+     * @param parallelism     the number of workers
+     * @param maxPlayouts     the number of playouts of a move, over all workers
+     * @param timeLimitMillis the time budget of a move, in milliseconds
+     */
+    public ParallelMctsMoveStrategy(ParallelMctsSearch.Mode mode, int parallelism,
+                                    long maxPlayouts, long timeLimitMillis) {
+        this.maxPlayouts = maxPlayouts;
+        this.timeLimitMillis = timeLimitMillis;
+        this.search = new ParallelMctsSearch(mode, parallelism, MctsSearch.DEFAULT_CAPACITY,
+                MctsSearch.DEFAULT_EXPLORATION, System.nanoTime());
+    }
+
+    @Override
+    public Move calculateMove(GameModel gameModel) {
+        return MoveCodec.decode(calculatePackedMove(gameModel), gameModel.getBoardSize());
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel) {
+        return calculatePackedMove(gameModel, timeLimitMillis);
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+        return search.search(gameModel.createSearchState(), maxPlayouts, timeLimitMillis);
+    }
+
+    @Override
+    public void play(GameModel gameModel) {
+    }
+
+    @Override
+    public void stop() {
+        search.stop();
+    }
+
+    @Override
+    public void clearStop() {
+        search.clearStop();
+    }
+
+    /**
+     * Describes the last search: mode, workers, playouts, tree size and speed.
+     *
+     * @return the text of the report
+     */
+    public String getSearchReport() {
+        return String.format("%s x%d playouts %d nodes %d (%.0f playouts/s)",
+                search.getMode(), search.getParallelism(), search.getPlayouts(),
+                search.getNodeCount(), search.getPlayoutsPerSecond());
+    }
+
+    public ParallelMctsSearch getSearch() { return search; }
+
+    @Override
+    public void close() {
+        search.close();
+    }
+}
@@ -0,0 +1,419 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search spread over the workers of a {@link ForkJoinPool}.
+ * <ul>
+ * <li>{@link Mode#ROOT}: every worker grows its own {@link MctsSearch} tree on its own
+ * copy of the position, and the visit counts of the root moves are added up at the end.
+ * Workers share nothing while searching.</li>
+ * <li>{@link Mode#TREE}: all workers grow one shared tree. Visits and scores are
+ * updated with atomic adds, and a node is expanded by the single worker that wins a
+ * compare-and-set on it. A worker counts its visit when it goes down through a
+ * node and adds the points only when its playout is over, so until then the node
+ * looks like a loss to the others (virtual loss) and they spread over other moves.</li>
+ * </ul>
+ * The pool is owned by the search; close it when the search is no longer needed.
+ */
+public class ParallelMctsSearch implements AutoCloseable {
+    /** How the workers share the search. */
+    public enum Mode { ROOT, TREE }
+
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int NO_ROOM = -3;
+    private static final int OPEN = 0;
+    private static final int WON = 1;
+    private static final int NO_MOVES = 2;
+
+    private final Mode mode;
+    private final int parallelism;
+    private final int capacity;
+    private final double exploration;
+    private final ForkJoinPool pool;
+    private final SplittableRandom seeds;
+
+    private final MctsSearch[] rootSearches;
+
+    private final int[] moves;
+    private final short[] childCount;
+    private final AtomicIntegerArray firstChild;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray scores;
+    private final AtomicIntegerArray status;
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    private long elapsedNanos;
+    private volatile boolean stopRequested;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param mode        root or tree parallelization
+     * @param parallelism the number of workers
+     * @param capacity    the number of nodes, shared by the workers in tree mode and
+     *                    split between them in root mode
+     * @param exploration the UCT exploration constant
+     * @param seed        the seed of the random playouts
+     */
+    public ParallelMctsSearch(Mode mode, int parallelism, int capacity, double exploration, long seed) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.mode = mode;
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+        this.exploration = exploration;
+        this.pool = new ForkJoinPool(parallelism);
+        this.seeds = new SplittableRandom(seed);
+
+        if (mode == Mode.ROOT) {
+            rootSearches = new MctsSearch[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                rootSearches[i] = new MctsSearch(Math.max(capacity / parallelism, 1), exploration, seeds.split());
+            }
+            moves = null;
+            childCount = null;
+            firstChild = visits = scores = status = null;
+        } else {
+            rootSearches = null;
+            moves = new int[capacity];
+            childCount = new short[capacity];
+            firstChild = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            scores = new AtomicIntegerArray(capacity);
+            status = new AtomicIntegerArray(capacity);
+        }
+    }
+
+    /**
+     * Searches a position with every worker until the playout budget or the time
+     * budget is spent. The state is not modified.
+     *
+     * @param state           the root position
+     * @param maxPlayouts     the number of playouts, over all workers
+     * @param timeLimitMillis the time budget, in milliseconds
+     * @return the best packed move, or MoveCodec.NO_MOVE if the side to move has no move
+     */
+    public int search(SearchState state, long maxPlayouts, long timeLimitMillis) {
+        long start = System.nanoTime();
+        int move = mode == Mode.ROOT
+                ? searchRoot(state, maxPlayouts, timeLimitMillis)
+                : searchTree(state, maxPlayouts, TimeControl.deadline(start, timeLimitMillis));
+        elapsedNanos = System.nanoTime() - start;
+        return move;
+    }
+
+    private int searchRoot(SearchState state, long maxPlayouts, long timeLimitMillis) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            MctsSearch search = rootSearches[i];
+            SearchState copy = state.copy();
+            long budget = maxPlayouts / parallelism + (i < maxPlayouts % parallelism ? 1 : 0);
+            tasks.add(() -> {
+                search.search(copy, Math.max(budget, 1), timeLimitMillis);
+                return null;
+            });
+        }
+        run(tasks);
+
+        long playouts = 0;
+        for (MctsSearch search : rootSearches) {
+            playouts += search.getPlayouts();
+        }
+        completed.set(playouts);
+
+        Map<Integer, Integer> totals = new HashMap<>();
+        for (MctsSearch search : rootSearches) {
+            if (search.isWinFound()) {
+                return search.getBestMove();
+            }
+            for (int[] child : search.getRootStatistics()) {
+                totals.merge(child[0], child[1], Integer::sum);
+            }
+        }
+
+        int best = MoveCodec.NO_MOVE;
+        int bestVisits = -1;
+        for (Map.Entry<Integer, Integer> entry : totals.entrySet()) {
+            if (entry.getValue() > bestVisits || entry.getValue() == bestVisits && entry.getKey() < best) {
+                best = entry.getKey();
+                bestVisits = entry.getValue();
+            }
+        }
+        if (best == MoveCodec.NO_MOVE) {
+            MoveList list = new MoveList();
+            state.copy().generateMoves(list);
+            return list.isEmpty() ? MoveCodec.NO_MOVE : list.get(0);
+        }
+        return best;
+    }
+
+    private int searchTree(SearchState state, long maxPlayouts, long deadline) {
+        nodeCount.set(1);
+        clearNode(0);
+        claimed.set(0);
+        completed.set(0);
+
+        SearchState rootState = state.copy();
+        if (!expand(rootState, 0, new MoveList())) {
+            if (status.get(0) == NO_MOVES) {
+                return MoveCodec.NO_MOVE;
+            }
+            MoveList list = new MoveList();
+            rootState.generateMoves(list);
+            return list.get(0);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            TreeWorker worker = new TreeWorker(state.copy(), seeds.split());
+            tasks.add(() -> {
+                while (!stopRequested && System.nanoTime() < deadline && claimed.getAndIncrement() < maxPlayouts) {
+                    worker.iterate();
+                    completed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        run(tasks);
+
+        int first = firstChild.get(0);
+        int best = first;
+        for (int child = first; child < first + childCount[0]; child++) {
+            if (status.get(child) == WON) {
+                return moves[child];
+            }
+            if (visits.get(child) > visits.get(best)) {
+                best = child;
+            }
+        }
+        return moves[best];
+    }
+
+    /**
+     * Asks every worker to finish its current playout and return.
+     * The request also holds for the next searches, until {@link #clearStop()}.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+        if (rootSearches != null) {
+            for (MctsSearch search : rootSearches) {
+                search.stop();
+            }
+        }
+    }
+
+    /**
+     * Forgets a stop request, before a new move.
+     */
+    public void clearStop() {
+        stopRequested = false;
+        if (rootSearches != null) {
+            for (MctsSearch search : rootSearches) {
+                search.clearStop();
+            }
+        }
+    }
+
+    private void run(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    private void clearNode(int node) {
+        childCount[node] = 0;
+        visits.set(node, 0);
+        scores.set(node, 0);
+        status.set(node, OPEN);
+        firstChild.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Gives a node its children. Only the worker holding the node in the EXPANDING
+     * state, or the main thread for the root, may call it.
+     *
+     * @return false if the node has no move or the tree has no room left
+     */
+    private boolean expand(SearchState state, int node, MoveList moveList) {
+        moveList.clear();
+        state.generateMoves(moveList);
+        int count = moveList.size();
+        if (count == 0) {
+            status.set(node, NO_MOVES);
+            firstChild.set(node, NO_ROOM);
+            return false;
+        }
+        if (nodeCount.get() + count > capacity) {
+            firstChild.set(node, NO_ROOM);
+            return false;
+        }
+        int start = nodeCount.getAndAdd(count);
+        if (start + count > capacity) {
+            firstChild.set(node, NO_ROOM);
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            moves[start + i] = moveList.get(i);
+            clearNode(start + i);
+        }
+        childCount[node] = (short) count;
+        firstChild.set(node, start);
+        return true;
+    }
+
+    /**
+     * One worker of the shared tree, with its own copy of the position and buffers.
+     */
+    private final class TreeWorker {
+        private final SearchState state;
+        private final SplittableRandom random;
+        private final MoveList moveList = new MoveList();
+        private final int[] path = new int[MctsSearch.MAX_PLIES + 1];
+        private final Colors[] movers = new Colors[MctsSearch.MAX_PLIES + 1];
+        private final int[] played = new int[MctsSearch.MAX_PLIES];
+
+        TreeWorker(SearchState state, SplittableRandom random) {
+            this.state = state;
+            this.random = random;
+        }
+
+        void iterate() {
+            int node = 0;
+            int depth = 0;
+            Colors winner = null;
+            visits.incrementAndGet(0);
+
+            while (true) {
+                int nodeStatus = status.get(node);
+                if (nodeStatus == WON) {
+                    winner = movers[depth];
+                    break;
+                }
+                if (nodeStatus == NO_MOVES) {
+                    break;
+                }
+                int first = firstChild.get(node);
+                if (first < 0) {
+                    boolean expanded = first == UNEXPANDED && visits.get(node) >= 2
+                            && firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)
+                            && expand(state, node, moveList);
+                    if (!expanded) {
+                        if (status.get(node) != NO_MOVES) {
+                            winner = MctsSearch.playout(state, depth, played, moveList, random);
+                        }
+                        break;
+                    }
+                    first = firstChild.get(node);
+                }
+
+                int child = selectChild(node, first);
+                visits.incrementAndGet(child);
+                Colors mover = state.getSideToMove();
+                played[depth] = moves[child];
+                depth++;
+                path[depth] = child;
+                movers[depth] = mover;
+                node = child;
+                if (state.make(moves[child])) {
+                    status.set(child, WON);
+                }
+            }
+
+            for (int i = 1; i <= depth; i++) {
+                int points = winner == null ? 1 : winner == movers[i] ? 2 : 0;
+                if (points > 0) {
+                    scores.addAndGet(path[i], points);
+                }
+            }
+            for (int i = depth - 1; i >= 0; i--) {
+                state.unmake(played[i]);
+            }
+        }
+
+        private int selectChild(int node, int first) {
+            int end = first + childCount[node];
+            double logVisits = Math.log(Math.max(visits.get(node), 1));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                int childVisits = visits.get(child);
+                if (status.get(child) == WON || childVisits == 0) {
+                    return child;
+                }
+                double value = scores.get(child) / (2.0 * childVisits)
+                        + exploration * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Returns the number of playouts of the last search, over all workers.
+     *
+     * @return the number of playouts
+     */
+    public long getPlayouts() {
+        return completed.get();
+    }
+
+    /**
+     * Returns the number of tree nodes of the last search, over all workers.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        if (mode == Mode.TREE) {
+            return Math.min(nodeCount.get(), capacity);
+        }
+        int total = 0;
+        for (MctsSearch search : rootSearches) {
+            total += search.getNodeCount();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the playout rate of the last search.
+     *
+     * @return playouts per second, over all workers
+     */
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getPlayouts() * 1e9 / elapsedNanos;
+    }
+
+    public Mode getMode() { return mode; }
+    public int getParallelism() { return parallelism; }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,164 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+import Util.MoveStrategy;
+
+/**
+ * Bot playing perfectly on boards small enough to be solved, 4x4 in practice.
+ * Positions of the {@link PerfectPlayTable} of the board size are answered from the
+ * table at once; on boards up to MAX_SOLVED_SIZE, later positions, which are much
+ * smaller, are solved exactly by an {@link EndgameSolver} that keeps its memory of
+ * proven positions from one move to the next. On larger boards, or if a solve runs
+ * out of time, the fallback strategy plays.
+ */
+public class PerfectMoveStrategy implements AnytimeMoveStrategy, AutoCloseable {
+    /** Default time budget of a move, in milliseconds. */
+    public static final long DEFAULT_TIME_LIMIT = 1000;
+    /** Largest board whose positions are solved when they are not in the table. */
+    public static final int MAX_SOLVED_SIZE = 4;
+    /** Memory of the solver, as a power of two; 2^20 entries take 12 MB. */
+    private static final int CACHE_BITS = 20;
+
+    private final MoveStrategy fallback;
+    private final long timeLimitMillis;
+    private final EndgameSolver solver = new EndgameSolver(0, 0, CACHE_BITS);
+    private PerfectPlayTable table;
+    private boolean lastTableHit;
+    private boolean lastSolved;
+    private int lastOutcome;
+
+    /**
+     * Creates the bot with the default time budget.
+     *
+     * @param fallback the strategy playing when no perfect move is known in time
+     */
+    public PerfectMoveStrategy(MoveStrategy fallback) {
+        this(fallback, DEFAULT_TIME_LIMIT);
+    }
+
+    /**
+     * Creates the bot.
+     *
+     * @param fallback        the strategy playing when no perfect move is known in time
+     * @param timeLimitMillis the time budget of a solve, in milliseconds
+     */
+    public PerfectMoveStrategy(MoveStrategy fallback, long timeLimitMillis) {
+        this.fallback = fallback;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public Move calculateMove(GameModel gameModel) {
+        return MoveCodec.decode(calculatePackedMove(gameModel), gameModel.getBoardSize());
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel) {
+        return calculatePackedMove(gameModel, timeLimitMillis);
+    }
+
+    @Override
+    public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+        long start = System.nanoTime();
+        SearchState state = gameModel.createSearchState();
+        PerfectPlayTable perfect = table(state.getBoardSize());
+        lastTableHit = false;
+        lastSolved = false;
+        int entry = perfect.probe(state);
+        if (entry != PerfectPlayTable.MISS && PerfectPlayTable.move(entry) != MoveCodec.NO_MOVE) {
+            lastTableHit = true;
+            lastSolved = true;
+            lastOutcome = PerfectPlayTable.outcome(entry);
+            return PerfectPlayTable.move(entry);
+        }
+
+        if (state.getBoardSize() <= MAX_SOLVED_SIZE) {
+            int move = solver.solve(state, timeLimitMillis);
+            if (solver.isSolved() && move != MoveCodec.NO_MOVE) {
+                lastSolved = true;
+                lastOutcome = solver.getOutcome();
+                return move;
+            }
+        }
+        if (fallback instanceof AnytimeMoveStrategy anytime) {
+            long left = timeLimitMillis - (System.nanoTime() - start) / 1_000_000L;
+            return anytime.calculatePackedMove(gameModel, Math.max(left, 1));
+        }
+        return fallback.calculatePackedMove(gameModel);
+    }
+
+    /**
+     * Checks if a position is answered exactly: it is in the table, or its board is
+     * small enough to be solved.
+     *
+     * @param state the position
+     * @return true if the fallback strategy only plays when a solve runs out of time
+     */
+    @Override
+    public boolean answersExactly(SearchState state) {
+        return state.getBoardSize() <= MAX_SOLVED_SIZE
+                || table(state.getBoardSize()).probe(state) != PerfectPlayTable.MISS;
+    }
+
+    private PerfectPlayTable table(int boardSize) {
+        return table != null ? table : PerfectPlayTable.forSize(boardSize);
+    }
+
+    @Override
+    public void play(GameModel gameModel) {
+        fallback.play(gameModel);
+    }
+
+    @Override
+    public void stop() {
+        solver.stop();
+        if (fallback instanceof AnytimeMoveStrategy anytime) {
+            anytime.stop();
+        }
+    }
+
+    @Override
+    public void clearStop() {
+        solver.clearStop();
+        if (fallback instanceof AnytimeMoveStrategy anytime) {
+            anytime.clearStop();
+        }
+    }
+
+    /**
+     * Replaces the table of the board size with a given table, or restores it with null.
+     *
+     * @param table the table to use, or null for {@link PerfectPlayTable#forSize(int)}
+     */
+    public void setTable(PerfectPlayTable table) {
+        this.table = table;
+    }
+
+    public boolean isLastTableHit() { return lastTableHit; }
+
+    /**
+     * Checks if the last move was proven best, from the table or by the solver.
+     *
+     * @return false if the fallback strategy played
+     */
+    public boolean isLastSolved() { return lastSolved; }
+
+    /**
+     * Returns the outcome of the last position solved.
+     *
+     * @return WIN, DRAW or LOSS for the bot (see {@link EndgameSolver})
+     */
+    public int getLastOutcome() { return lastOutcome; }
+    public MoveStrategy getFallback() { return fallback; }
+
+    @Override
+    public void close() {
+        if (fallback instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not release the fallback strategy", e);
+            }
+        }
+    }
+}
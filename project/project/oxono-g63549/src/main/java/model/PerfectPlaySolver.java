@@ -0,0 +1,198 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves every position reachable in the first turns of a board size, offline, and
+ * writes the {@link PerfectPlayTable} the bots load.
+ * Positions are enumerated from the start position up to a number of turns, one per
+ * canonical form (see {@link Symmetry}), then solved exactly by {@link EndgameSolver}s
+ * on all the cores. Each thread keeps its solver, and its memory of proven positions,
+ * from one position to the next; the deepest positions are solved first so the
+ * shallower ones find their subtrees already proven.
+ * <p>
+ * On 4x4 the start position is a draw, solved in a few seconds. The whole game has
+ * well over 10^8 canonical positions, too many to store, so the table stops at a
+ * horizon and {@link PerfectMoveStrategy} solves the later, much smaller positions
+ * when it meets them.
+ *
+ * Usage: {@code PerfectPlaySolver [--size N] [--plies P] [--threads T] [--out DIR]}.
+ * From Maven: {@code mvn -Pperfect compile exec:exec -Dperfect.args="--plies 3"}.
+ */
+public class PerfectPlaySolver {
+    /** Memory of each solver, as a power of two; 2^22 entries take 48 MB. */
+    private static final int CACHE_BITS = 22;
+
+    private final int boardSize;
+    private final int plies;
+    private final Map<Long, SearchState> positions = new HashMap<>();
+    private final Map<Long, Integer> depths = new HashMap<>();
+    private long[] keys = new long[0];
+    private int[] entries = new int[0];
+
+    /**
+     * Creates a solver.
+     *
+     * @param boardSize the board size
+     * @param plies     the number of turns from the start position covered by the table
+     */
+    public PerfectPlaySolver(int boardSize, int plies) {
+        if (plies < 0) {
+            throw new IllegalArgumentException("The number of turns must not be negative");
+        }
+        this.boardSize = boardSize;
+        this.plies = plies;
+    }
+
+    /**
+     * Enumerates the positions of the table, then solves them.
+     *
+     * @param threads the number of solving threads
+     * @throws InterruptedException if the thread is interrupted while waiting for the solvers
+     */
+    public void solve(int threads) throws InterruptedException {
+        positions.clear();
+        depths.clear();
+        MoveList[] moveLists = new MoveList[plies + 1];
+        for (int i = 0; i <= plies; i++) {
+            moveLists[i] = new MoveList();
+        }
+        enumerate(new GameModel(boardSize).createSearchState(), 0, moveLists);
+
+        List<Long> order = new ArrayList<>(positions.keySet());
+        order.sort((a, b) -> Integer.compare(depths.get(b), depths.get(a)));
+        keys = new long[order.size()];
+        entries = new int[order.size()];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    EndgameSolver solver = new EndgameSolver(0, 0, CACHE_BITS);
+                    for (int i = next.getAndIncrement(); i < keys.length; i = next.getAndIncrement()) {
+                        long key = order.get(i);
+                        SearchState state = positions.get(key);
+                        int move = solver.solve(state, AlphaBetaSearch.NO_TIME_LIMIT);
+                        int transform = Symmetry.canonicalize(state).transform();
+                        keys[i] = key;
+                        entries[i] = PerfectPlayTable.entry(solver.getOutcome(),
+                                Symmetry.mapMove(transform, move, boardSize));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solver failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Collects one position per canonical form, keeping the shallowest depth it was met at.
+     */
+    private void enumerate(SearchState state, int depth, MoveList[] moveLists) {
+        long key = Symmetry.canonicalize(state).key();
+        Integer known = depths.get(key);
+        if (known != null && known <= depth) {
+            return;
+        }
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        state.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return;
+        }
+        positions.putIfAbsent(key, state.copy());
+        depths.put(key, depth);
+        if (depth == plies) {
+            return;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!state.make(move)) {
+                enumerate(state, depth + 1, moveLists);
+            }
+            state.unmake(move);
+        }
+    }
+
+    /**
+     * Writes the solved positions, sorted by canonical key.
+     *
+     * @param file the table file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        ByteBuffer buffer = PerfectPlayTable.FORMAT.allocate(boardSize, keys.length);
+        for (int i : order) {
+            buffer.putLong(keys[i]).putInt(entries[i]);
+        }
+        SortedTable.write(file, buffer);
+    }
+
+    public int getBoardSize() { return boardSize; }
+    public int getPositionCount() { return keys.length; }
+
+    /**
+     * Returns the outcome of the start position, once solved.
+     *
+     * @return WIN, DRAW or LOSS for the first player (see {@link EndgameSolver})
+     */
+    public int getStartOutcome() {
+        long key = Symmetry.canonicalize(new GameModel(boardSize).createSearchState()).key();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                return PerfectPlayTable.outcome(entries[i]);
+            }
+        }
+        throw new IllegalStateException("The start position is not solved");
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = 4;
+        int plies = 3;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path directory = Path.of("books");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> size = Integer.parseInt(args[++i]);
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--out" -> directory = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        PerfectPlaySolver solver = new PerfectPlaySolver(size, plies);
+        solver.solve(threads);
+        Path file = directory.resolve("perfect-" + size + ".bin");
+        solver.write(file);
+        String[] outcomes = {"loss", "draw", "win"};
+        System.out.printf("%s: %,d positions, start position a %s for the first player, in %.1f s on %d threads%n",
+                file, solver.getPositionCount(), outcomes[solver.getStartOutcome() + 1],
+                (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Read-only table of solved positions of one board size, memory-mapped from a file
+ * written by {@link PerfectPlaySolver}.
+ * The file starts with a header (magic number, version, board size, entry count)
+ * followed by 12-byte entries sorted by the canonical key of their position (see
+ * {@link Symmetry}). An entry packs the outcome for the side to move in bits 0-1
+ * (plus one) and a best move in the canonical frame, plus one, from bit 2.
+ * A lookup canonicalises the position, binary-searches the mapped file (see
+ * SortedTable) and maps the move back, in a few microseconds.
+ * <p>
+ * The tables used by the bots are {@code perfect-<size>.bin} in the same directory as
+ * the opening books (see {@link OpeningBook}). A missing or unreadable file gives an
+ * empty table.
+ */
+public class PerfectPlayTable {
+    /** "OXOP" in ASCII. */
+    private static final int MAGIC = 0x4F584F50;
+    private static final int VERSION = 1;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+    static final SortedTable.Format FORMAT =
+            new SortedTable.Format("perfect play table", "perfect", MAGIC, VERSION, ENTRY_BYTES);
+
+    /** Entry returned by {@link #probe(SearchState)} for a position not in the table. */
+    public static final int MISS = 0;
+
+    private final SortedTable table;
+    private final int boardSize;
+    private final int entryCount;
+
+    private PerfectPlayTable(SortedTable table) {
+        this.table = table;
+        this.boardSize = table.getBoardSize();
+        this.entryCount = table.getEntryCount();
+    }
+
+    /**
+     * Creates a table without entries.
+     *
+     * @param boardSize the board size
+     * @return the empty table
+     */
+    public static PerfectPlayTable empty(int boardSize) {
+        return new PerfectPlayTable(FORMAT.empty(boardSize));
+    }
+
+    /**
+     * Maps a table file.
+     *
+     * @param file the file written by {@link PerfectPlaySolver#write(Path)}
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static PerfectPlayTable open(Path file) throws IOException {
+        return new PerfectPlayTable(FORMAT.open(file));
+    }
+
+    /**
+     * Returns the table of a board size used by the bots, mapped on first use.
+     *
+     * @param boardSize the board size
+     * @return the table, empty if there is no readable table file for that size
+     */
+    public static PerfectPlayTable forSize(int boardSize) {
+        return new PerfectPlayTable(FORMAT.forSize(boardSize));
+    }
+
+    /**
+     * Packs an outcome and a move into an entry.
+     *
+     * @param outcome the outcome for the side to move (see {@link EndgameSolver})
+     * @param move    a best packed move, or MoveCodec.NO_MOVE
+     * @return the entry, never MISS
+     */
+    static int entry(int outcome, int move) {
+        return (outcome + 1) | (move + 1) << 2;
+    }
+
+    public static int outcome(int entry) {
+        return (entry & 3) - 1;
+    }
+
+    public static int move(int entry) {
+        return (entry >>> 2) - 1;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param state the position, at the start of a turn
+     * @return the entry, with its move mapped to the position, or MISS
+     */
+    public int probe(SearchState state) {
+        if (entryCount == 0 || state.getBoardSize() != boardSize) {
+            return MISS;
+        }
+        Symmetry.Canonical canonical = Symmetry.canonicalize(state);
+        int entry = probe(canonical.key());
+        if (entry == MISS) {
+            return MISS;
+        }
+        int move = Symmetry.mapMove(Symmetry.inverse(canonical.transform()), move(entry), boardSize);
+        return entry(outcome(entry), move);
+    }
+
+    /**
+     * Looks a canonical key up.
+     *
+     * @param key the canonical key of the position
+     * @return the entry, with its move in the canonical frame, or MISS
+     */
+    public int probe(long key) {
+        int index = table.firstEntry(key);
+        return index < entryCount && table.keyAt(index) == key ? table.intAt(index, Long.BYTES) : MISS;
+    }
+
+    public int getBoardSize() { return boardSize; }
+    public int getEntryCount() { return entryCount; }
+    public boolean isEmpty() { return entryCount == 0; }
+}
@@ -0,0 +1,144 @@
+package model;
+
+/**
+ * Perft harness: counts every legal full turn (totem move plus token placement,
+ * enclaved jumps and the anywhere-placement fallback included) down to a fixed depth
+ * from the start position of a {@link GameModel}.
+ * A winning turn ends the game, so the position after it has no children.
+ *
+ * Usage: {@code Perft [--size N] [--depth D] [--divide] [--check]}.
+ * Without --size every board size from 4 to 10 is counted.
+ * From Maven: {@code mvn -Pperft compile exec:exec -Dperft.args="--depth 3 --check"}.
+ */
+public class Perft {
+    /** Known node counts, REFERENCE[size - 4][depth - 1]. */
+    static final long[][] REFERENCE = {
+            {36, 904, 18_460, 307_692},
+            {52, 2_034, 66_478, 1_874_670},
+            {68, 3_612, 162_680, 6_470_000},
+            {84, 5_628, 324_296, 16_773_950},
+            {100, 8_092, 567_748, 36_099_788},
+            {116, 10_988, 908_712, 68_614_726},
+            {132, 14_332, 1_364_556, 119_195_900},
+    };
+
+    private final SearchState state;
+    private final MoveList[] moveLists;
+
+    /**
+     * Creates a perft counter for a position.
+     *
+     * @param state    the root position, which is played on and restored
+     * @param maxDepth the deepest depth that will be requested
+     */
+    public Perft(SearchState state, int maxDepth) {
+        this.state = state;
+        this.moveLists = new MoveList[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Creates a perft counter for the start position of a board size.
+     *
+     * @param size     the board size
+     * @param maxDepth the deepest depth that will be requested
+     * @return the counter
+     */
+    public static Perft fromStart(int size, int maxDepth) {
+        return new Perft(new GameModel(size).createSearchState(), maxDepth);
+    }
+
+    /**
+     * Counts the leaf nodes at a depth.
+     *
+     * @param depth the number of turns
+     * @return the number of leaf nodes
+     */
+    public long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        state.generateMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!state.make(move)) {
+                nodes += count(depth - 1);
+            }
+            state.unmake(move);
+        }
+        return nodes;
+    }
+
+    /**
+     * Prints the leaf count below every root move, then the total.
+     *
+     * @param depth the number of turns
+     * @return the number of leaf nodes
+     */
+    public long divide(int depth) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long nodes = state.make(move) ? (depth == 1 ? 1 : 0) : count(depth - 1);
+            state.unmake(move);
+            System.out.println(MoveCodec.toString(move, state.getBoardSize()) + ": " + nodes);
+            total += nodes;
+        }
+        System.out.println("Total: " + total);
+        return total;
+    }
+
+    public static void main(String[] args) {
+        int minSize = 4;
+        int maxSize = 10;
+        int depth = 3;
+        boolean divide = false;
+        boolean check = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> minSize = maxSize = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--divide" -> divide = true;
+                case "--check" -> check = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        boolean ok = true;
+        for (int size = minSize; size <= maxSize; size++) {
+            Perft perft = fromStart(size, depth);
+            if (divide) {
+                System.out.println("Board " + size + "x" + size + ", depth " + depth);
+                perft.divide(depth);
+                continue;
+            }
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                long nodes = perft.count(d);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                String line = String.format("size %2d depth %d: %,15d nodes %8.3f s %,14.0f nodes/s",
+                        size, d, nodes, seconds, nodes / Math.max(seconds, 1e-9));
+                if (check && d <= REFERENCE[size - 4].length) {
+                    boolean match = REFERENCE[size - 4][d - 1] == nodes;
+                    ok &= match;
+                    line += match ? "  OK" : "  MISMATCH (expected " + REFERENCE[size - 4][d - 1] + ")";
+                }
+                System.out.println(line);
+            }
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * A step of a {@link ForcedWinMoveStrategy} before its wrapped strategy searches: it
+ * answers the position with a move known to be right, or leaves it to the next step.
+ */
+interface PreMoveStage {
+    /**
+     * Looks for a move to play at once.
+     *
+     * @param state        the position, with the bot to move; it is played on and restored
+     * @param budgetMillis the time the step may take, in milliseconds
+     * @return the move to play, or MoveCodec.NO_MOVE to go on with the next step
+     */
+    int probe(SearchState state, long budgetMillis);
+
+    /**
+     * Asks a running probe to give up, from any thread. The request also holds for the
+     * next probes, until {@link #clearStop()}.
+     */
+    default void stop() {
+    }
+
+    /**
+     * Forgets a stop request, before a new move.
+     */
+    default void clearStop() {
+    }
+}
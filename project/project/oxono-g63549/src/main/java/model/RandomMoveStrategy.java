@@ -27,7 +27,6 @@ public class RandomMoveStrategy implements MoveStrategy {
         Totem chosenTotem = (chosenSymbol == Symbol.X) ? gameModel.getTotemX() : gameModel.getTotemO();
 
         List<Position> validTotemMoves = gameModel.getBoard().getValidTotemPositions(chosenTotem);
-        System.out.println(validTotemMoves);
         Position startPos = gameModel.getBoard().findTotemPosition(chosenTotem);
 
         Position totemTarget;
@@ -38,15 +37,11 @@ public class RandomMoveStrategy implements MoveStrategy {
         }
 
         List<Position> validTokenPlacements = GameRules.getValidTokenPositionsForPosition(gameModel.getBoard(), totemTarget);
-        System.out.println(validTokenPlacements);
 
         Position tokenTarget = null;
         if (!validTokenPlacements.isEmpty()) {
             tokenTarget = validTokenPlacements.get(random.nextInt(validTokenPlacements.size()));
         }
-        System.out.println(totemTarget);
-        System.out.println(tokenTarget);
-        System.out.println(chosenSymbol);
         return new Move(totemTarget, tokenTarget, chosenSymbol);
     }
 
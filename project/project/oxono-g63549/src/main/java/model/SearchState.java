@@ -0,0 +1,233 @@
+package model;
+
+/**
+ * Lightweight game state for move searches: a private copy of the board, the token
+ * counts of both bags, the player to move and the turn phase.
+ * Turns are played and taken back with {@link #make(int)} and {@link #unmake(int)}
+ * on packed moves (see {@link MoveCodec}). Nothing is notified and nothing is printed,
+ * so a strategy can search without touching the live {@link GameModel}, and several
+ * states can be searched on different threads.
+ * The {@link Evaluator} is only built by the first call to {@link #evaluate()}, then
+ * kept up to date by make and unmake; searches that never evaluate, such as perft,
+ * playouts or exact solving, do not pay for it.
+ */
+public class SearchState {
+    private static final int MAX_PLIES = 128;
+
+    private final Board board;
+    /** Incremental evaluation, null until the first call to evaluate(). */
+    private Evaluator evaluator;
+    private final int[] bags = new int[4];
+    private Colors sideToMove;
+    private TurnPhase phase;
+    private Symbol lastMovedSymbol;
+
+    private final int[] fromCells = new int[MAX_PLIES];
+    private final TurnPhase[] phases = new TurnPhase[MAX_PLIES];
+    private final Symbol[] lastMovedSymbols = new Symbol[MAX_PLIES];
+    private int ply;
+
+    /**
+     * Creates a state from its parts. The board is copied.
+     *
+     * @param board           the board
+     * @param pinkX           the X tokens left to the pink player
+     * @param pinkO           the O tokens left to the pink player
+     * @param blackX          the X tokens left to the black player
+     * @param blackO          the O tokens left to the black player
+     * @param sideToMove      the color of the player to move
+     * @param phase           the turn phase
+     * @param lastMovedSymbol the symbol of the totem moved this turn, or null
+     */
+    public SearchState(Board board, int pinkX, int pinkO, int blackX, int blackO,
+                       Colors sideToMove, TurnPhase phase, Symbol lastMovedSymbol) {
+        this.board = new Board(board);
+        bags[bagIndex(Colors.PINK, Symbol.X)] = pinkX;
+        bags[bagIndex(Colors.PINK, Symbol.O)] = pinkO;
+        bags[bagIndex(Colors.BLACK, Symbol.X)] = blackX;
+        bags[bagIndex(Colors.BLACK, Symbol.O)] = blackO;
+        this.sideToMove = sideToMove;
+        this.phase = phase;
+        this.lastMovedSymbol = lastMovedSymbol;
+    }
+
+    /**
+     * Creates a copy of another state, without its move history.
+     *
+     * @param other the state to copy
+     */
+    public SearchState(SearchState other) {
+        this.board = new Board(other.board);
+        this.evaluator = other.evaluator == null ? null : new Evaluator(other.evaluator);
+        System.arraycopy(other.bags, 0, bags, 0, bags.length);
+        this.sideToMove = other.sideToMove;
+        this.phase = other.phase;
+        this.lastMovedSymbol = other.lastMovedSymbol;
+    }
+
+    /**
+     * Returns a copy of this state.
+     *
+     * @return the copy
+     */
+    public SearchState copy() {
+        return new SearchState(this);
+    }
+
+    /**
+     * Appends the legal moves of the player to move to a list.
+     * During the token placement phase, the totem already moved stays where it is
+     * and only the token placement is chosen.
+     *
+     * @param moves the list receiving the packed moves
+     */
+    public void generateMoves(MoveList moves) {
+        if (phase == TurnPhase.MOVE_TOTEM) {
+            GameRules.generateTurns(board, tokens(sideToMove, Symbol.X), tokens(sideToMove, Symbol.O), moves);
+            return;
+        }
+        if (lastMovedSymbol == null || tokens(sideToMove, lastMovedSymbol) <= 0) {
+            return;
+        }
+        int totemCell = board.findTotemCell(lastMovedSymbol);
+        int[] targets = moves.targets;
+        int count = GameRules.generateTokenTargets(board, totemCell, targets, 0);
+        for (int i = 0; i < count; i++) {
+            moves.add(MoveCodec.encode(lastMovedSymbol, totemCell, targets[i]));
+        }
+    }
+
+    /**
+     * Plays a move: moves the totem, places the token and gives the turn to the opponent.
+     *
+     * @param move the packed move
+     * @return true if the token completes an alignment, which wins the game for the mover
+     */
+    public boolean make(int move) {
+        Symbol symbol = MoveCodec.symbol(move);
+        int from = board.findTotemCell(symbol);
+        int to = MoveCodec.totemCell(move);
+
+        fromCells[ply] = from;
+        phases[ply] = phase;
+        lastMovedSymbols[ply] = lastMovedSymbol;
+        ply++;
+
+        if (from != to) {
+            Piece totem = board.getPiece(from);
+            board.removePiece(from);
+            board.putPiece(to, totem);
+        }
+
+        boolean win = false;
+        if (MoveCodec.hasToken(move)) {
+            int cell = MoveCodec.tokenCell(move);
+            int bag = bagIndex(sideToMove, symbol);
+            board.putPiece(cell, Token.of(sideToMove, symbol));
+            if (evaluator != null) {
+                evaluator.addToken(cell, sideToMove, symbol);
+            }
+            bags[bag]--;
+            win = GameRules.checkWinAt(board, cell);
+        }
+
+        sideToMove = opponent(sideToMove);
+        phase = TurnPhase.MOVE_TOTEM;
+        lastMovedSymbol = null;
+        return win;
+    }
+
+    /**
+     * Takes back the last move played with {@link #make(int)}.
+     *
+     * @param move the packed move that was played last
+     */
+    public void unmake(int move) {
+        ply--;
+        sideToMove = opponent(sideToMove);
+        phase = phases[ply];
+        lastMovedSymbol = lastMovedSymbols[ply];
+
+        Symbol symbol = MoveCodec.symbol(move);
+        if (MoveCodec.hasToken(move)) {
+            int cell = MoveCodec.tokenCell(move);
+            board.removePiece(cell);
+            if (evaluator != null) {
+                evaluator.removeToken(cell, sideToMove, symbol);
+            }
+            bags[bagIndex(sideToMove, symbol)]++;
+        }
+
+        int from = fromCells[ply];
+        int to = MoveCodec.totemCell(move);
+        if (from != to) {
+            Piece totem = board.getPiece(to);
+            board.removePiece(to);
+            board.putPiece(from, totem);
+        }
+    }
+
+    /**
+     * Returns the Zobrist key of the state, computed like {@link GameModel#getPositionKey()}.
+     *
+     * @return the key
+     */
+    public long getKey() {
+        long key = board.getZobristKey()
+                ^ Zobrist.bagKey(Colors.PINK, Symbol.X, bags[0])
+                ^ Zobrist.bagKey(Colors.PINK, Symbol.O, bags[1])
+                ^ Zobrist.bagKey(Colors.BLACK, Symbol.X, bags[2])
+                ^ Zobrist.bagKey(Colors.BLACK, Symbol.O, bags[3])
+                ^ Zobrist.phaseKey(phase, lastMovedSymbol);
+        if (sideToMove == Colors.BLACK) {
+            key ^= Zobrist.sideToMoveKey();
+        }
+        return key;
+    }
+
+    /**
+     * Scores the position from the side to move's point of view. The first call builds
+     * the evaluation from the board; from then on {@link #make(int)} and
+     * {@link #unmake(int)} keep it up to date.
+     *
+     * @return the score (see {@link Evaluator#evaluate(SearchState)})
+     */
+    public int evaluate() {
+        if (evaluator == null) {
+            evaluator = new Evaluator(board);
+        }
+        return evaluator.evaluate(this);
+    }
+
+    /**
+     * Returns the number of tokens of a symbol left to a player.
+     *
+     * @param colors the color of the player
+     * @param symbol the symbol
+     * @return the number of tokens
+     */
+    public int tokens(Colors colors, Symbol symbol) {
+        return bags[bagIndex(colors, symbol)];
+    }
+
+    public Board getBoard() { return board; }
+    public int getBoardSize() { return board.getSize(); }
+    public Colors getSideToMove() { return sideToMove; }
+    public TurnPhase getPhase() { return phase; }
+    public Symbol getLastMovedSymbol() { return lastMovedSymbol; }
+    public int getPly() { return ply; }
+
+    /**
+     * Returns the opponent of a player.
+     *
+     * @param colors the color of the player
+     * @return the color of the opponent
+     */
+    public static Colors opponent(Colors colors) {
+        return colors == Colors.PINK ? Colors.BLACK : Colors.PINK;
+    }
+
+    private static int bagIndex(Colors colors, Symbol symbol) {
+        return (colors == Colors.PINK ? 0 : 2) + symbol.ordinal();
+    }
+}
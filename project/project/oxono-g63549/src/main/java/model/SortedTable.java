@@ -0,0 +1,201 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only file of fixed-size entries sorted by a position key, memory-mapped: the
+ * storage behind the {@link OpeningBook} and the {@link PerfectPlayTable}.
+ * The file starts with a header (magic number, version, board size, entry count)
+ * followed by the entries, each starting with its key. A lookup binary-searches the
+ * mapped file directly, so a table costs no heap memory and can be read by any number
+ * of threads.
+ * <p>
+ * The tables used by the bots are {@code <prefix>-<size>.bin} in the directory given
+ * by the {@code oxono.book.dir} system property, {@code books} by default.
+ */
+final class SortedTable {
+    static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private static final String DIRECTORY_PROPERTY = "oxono.book.dir";
+
+    /**
+     * The layout and the file names of one kind of table, and the tables of that kind
+     * mapped so far, one per board size.
+     */
+    static final class Format {
+        private final String name;
+        private final String filePrefix;
+        private final int magic;
+        private final int version;
+        private final int entryBytes;
+        private final Map<Integer, SortedTable> tables = new ConcurrentHashMap<>();
+
+        /**
+         * Describes a kind of table.
+         *
+         * @param name       the name of the kind, for error messages
+         * @param filePrefix the start of the file names of the tables used by the bots
+         * @param magic      the first int of the files
+         * @param version    the second int of the files
+         * @param entryBytes the size of an entry, its key included
+         */
+        Format(String name, String filePrefix, int magic, int version, int entryBytes) {
+            this.name = name;
+            this.filePrefix = filePrefix;
+            this.magic = magic;
+            this.version = version;
+            this.entryBytes = entryBytes;
+        }
+
+        /**
+         * Creates a table without entries.
+         */
+        SortedTable empty(int boardSize) {
+            return new SortedTable(ByteBuffer.allocate(0), entryBytes, boardSize, 0);
+        }
+
+        /**
+         * Maps a table file.
+         *
+         * @throws IOException if the file cannot be read or is not a table of this kind
+         */
+        SortedTable open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != magic) {
+                    throw new IOException("Not " + article() + name + ": " + file);
+                }
+                if (buffer.getInt(4) != version) {
+                    throw new IOException("Unsupported " + name + " version " + buffer.getInt(4) + ": " + file);
+                }
+                int boardSize = buffer.getInt(8);
+                int entryCount = buffer.getInt(12);
+                if ((long) entryCount * entryBytes != buffer.capacity() - HEADER_BYTES) {
+                    throw new IOException("Truncated " + name + ": " + file);
+                }
+                return new SortedTable(buffer, entryBytes, boardSize, entryCount);
+            }
+        }
+
+        /**
+         * Returns the table of a board size used by the bots, mapped on first use.
+         *
+         * @return the table, empty if there is no readable file for that size
+         */
+        SortedTable forSize(int boardSize) {
+            return tables.computeIfAbsent(boardSize, size -> {
+                Path file = directory().resolve(filePrefix + "-" + size + ".bin");
+                if (!Files.isRegularFile(file)) {
+                    return empty(size);
+                }
+                try {
+                    SortedTable table = open(file);
+                    return table.boardSize == size ? table : empty(size);
+                } catch (IOException e) {
+                    System.err.println("Ignoring " + name + ": " + e.getMessage());
+                    return empty(size);
+                }
+            });
+        }
+
+        /**
+         * Allocates the content of a table file and writes its header; the caller puts the
+         * entries, sorted by key, then writes the buffer with {@link SortedTable#write}.
+         */
+        ByteBuffer allocate(int boardSize, int entryCount) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + entryCount * entryBytes);
+            return buffer.putInt(magic).putInt(version).putInt(boardSize).putInt(entryCount);
+        }
+
+        private String article() {
+            return "aeiou".indexOf(name.charAt(0)) >= 0 ? "an " : "a ";
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int entryBytes;
+    private final int boardSize;
+    private final int entryCount;
+
+    private SortedTable(ByteBuffer buffer, int entryBytes, int boardSize, int entryCount) {
+        this.buffer = buffer;
+        this.entryBytes = entryBytes;
+        this.boardSize = boardSize;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Returns the directory of the books and tables used by the bots.
+     *
+     * @return the value of the oxono.book.dir system property, or books
+     */
+    static Path directory() {
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY, "books"));
+    }
+
+    /**
+     * Writes a filled buffer to a table file, creating its directory.
+     *
+     * @param file   the file, replaced if it exists
+     * @param buffer the header and the entries, from {@link Format#allocate(int, int)}
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Finds the first entry whose key is not smaller than a key.
+     *
+     * @param key the key
+     * @return the index of the entry, or the entry count if every key is smaller
+     */
+    int firstEntry(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    long keyAt(int index) {
+        return buffer.getLong(HEADER_BYTES + index * entryBytes);
+    }
+
+    /**
+     * Reads an int of an entry.
+     *
+     * @param index  the index of the entry
+     * @param offset the position of the int in the entry, the key included
+     * @return the int
+     */
+    int intAt(int index, int offset) {
+        return buffer.getInt(HEADER_BYTES + index * entryBytes + offset);
+    }
+
+    int getBoardSize() { return boardSize; }
+    int getEntryCount() { return entryCount; }
+}
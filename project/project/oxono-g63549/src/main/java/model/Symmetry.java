@@ -0,0 +1,205 @@
+package model;
+
+/**
+ * Symmetries of Oxono positions, used to store symmetric positions once.
+ * The rules only look at rows, columns and neighbours, so they do not change when
+ * the square board is rotated or reflected (8 transforms), nor when pink and black
+ * swap their tokens, their bags and the turn (2 transforms): 16 transforms in all.
+ * <p>
+ * A transform id holds the dihedral transform in bits 0-2 and the color swap in bit 3.
+ * Transform 1 turns the board a quarter clockwise, 2 a half, 3 three quarters;
+ * 4 mirrors it on the main diagonal, 5 upside down, 6 on the anti-diagonal and 7 left
+ * to right.
+ * <p>
+ * The canonical form of a position is the transform giving the smallest Zobrist key.
+ * Its key is computed from the bitboards of the board, one cell table lookup per
+ * piece, with the same piece, bag, side and phase keys as {@link SearchState#getKey()},
+ * so the identity transform gives the usual key.
+ */
+public final class Symmetry {
+    /** Number of transforms, the identity included. */
+    public static final int TRANSFORMS = 16;
+    public static final int IDENTITY = 0;
+    /** Bit of a transform id swapping the colors. */
+    public static final int COLOR_SWAP = 8;
+
+    private static final int DIHEDRAL_MASK = 7;
+    /** Inverse of each dihedral transform: only the quarter turns are not their own inverse. */
+    private static final int[] INVERSE = {0, 3, 2, 1, 4, 5, 6, 7};
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    /** CELLS[size][dihedral transform][cell]: the cell a cell goes to. */
+    private static final int[][][] CELLS = new int[11][8][];
+
+    static {
+        for (int size = 4; size <= 10; size++) {
+            for (int transform = 0; transform < 8; transform++) {
+                int[] map = new int[size * size];
+                for (int x = 0; x < size; x++) {
+                    for (int y = 0; y < size; y++) {
+                        map[x * size + y] = mapCoordinates(transform, x, y, size);
+                    }
+                }
+                CELLS[size][transform] = map;
+            }
+        }
+    }
+
+    /** Result of {@link #canonicalize(SearchState)}. */
+    public record Canonical(long key, int transform) {
+    }
+
+    private Symmetry() {
+    }
+
+    private static int mapCoordinates(int transform, int x, int y, int size) {
+        int last = size - 1;
+        return switch (transform) {
+            case 0 -> x * size + y;
+            case 1 -> y * size + (last - x);
+            case 2 -> (last - x) * size + (last - y);
+            case 3 -> (last - y) * size + x;
+            case 4 -> y * size + x;
+            case 5 -> (last - x) * size + y;
+            case 6 -> (last - y) * size + (last - x);
+            default -> x * size + (last - y);
+        };
+    }
+
+    /**
+     * Returns the transform undoing another one.
+     *
+     * @param transform the transform id
+     * @return the id of its inverse
+     */
+    public static int inverse(int transform) {
+        return INVERSE[transform & DIHEDRAL_MASK] | (transform & COLOR_SWAP);
+    }
+
+    public static boolean swapsColors(int transform) {
+        return (transform & COLOR_SWAP) != 0;
+    }
+
+    /**
+     * Maps a cell through a transform.
+     *
+     * @param transform the transform id
+     * @param cell      the cell index
+     * @param size      the board size
+     * @return the index of the image cell
+     */
+    public static int mapCell(int transform, int cell, int size) {
+        return CELLS[size][transform & DIHEDRAL_MASK][cell];
+    }
+
+    /**
+     * Maps a packed move through a transform. Colors are not part of a move, so only
+     * the cells change.
+     *
+     * @param transform the transform id
+     * @param move      the packed move, or MoveCodec.NO_MOVE
+     * @param size      the board size
+     * @return the packed move in the transformed position
+     */
+    public static int mapMove(int transform, int move, int size) {
+        if (move == MoveCodec.NO_MOVE) {
+            return move;
+        }
+        int[] map = CELLS[size][transform & DIHEDRAL_MASK];
+        int tokenCell = MoveCodec.hasToken(move) ? map[MoveCodec.tokenCell(move)] : MoveCodec.NO_TOKEN;
+        return MoveCodec.encode(MoveCodec.symbol(move), map[MoveCodec.totemCell(move)], tokenCell);
+    }
+
+    /**
+     * Computes the Zobrist key of a transformed position without building it.
+     *
+     * @param state     the position
+     * @param transform the transform id
+     * @return the key {@link SearchState#getKey()} would give for the transformed position
+     */
+    public static long key(SearchState state, int transform) {
+        Board board = state.getBoard();
+        int[] map = CELLS[board.getSize()][transform & DIHEDRAL_MASK];
+        boolean swap = swapsColors(transform);
+        long key = 0;
+        for (Symbol symbol : SYMBOLS) {
+            key ^= Zobrist.pieceKey(symbol.ordinal(), map[board.findTotemCell(symbol)]);
+            for (int word = 0; word < Board.WORDS; word++) {
+                long tokens = board.symbolWord(symbol, word);
+                long pink = tokens & board.colorWord(Colors.PINK, word);
+                long black = tokens & board.colorWord(Colors.BLACK, word);
+                key ^= tokensKey(pink, word, map, Zobrist.tokenKind(swap ? Colors.BLACK : Colors.PINK, symbol))
+                        ^ tokensKey(black, word, map, Zobrist.tokenKind(swap ? Colors.PINK : Colors.BLACK, symbol));
+            }
+            key ^= Zobrist.bagKey(swap ? Colors.BLACK : Colors.PINK, symbol, state.tokens(Colors.PINK, symbol))
+                    ^ Zobrist.bagKey(swap ? Colors.PINK : Colors.BLACK, symbol, state.tokens(Colors.BLACK, symbol));
+        }
+        Colors side = swap ? SearchState.opponent(state.getSideToMove()) : state.getSideToMove();
+        if (side == Colors.BLACK) {
+            key ^= Zobrist.sideToMoveKey();
+        }
+        return key ^ Zobrist.phaseKey(state.getPhase(), state.getLastMovedSymbol());
+    }
+
+    private static long tokensKey(long cells, int word, int[] map, int kind) {
+        long key = 0;
+        while (cells != 0) {
+            int cell = (word << 6) + Long.numberOfTrailingZeros(cells);
+            key ^= Zobrist.pieceKey(kind, map[cell]);
+            cells &= cells - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Finds the canonical form of a position: the transform with the smallest key,
+     * the lowest id winning ties.
+     * A move chosen in the canonical form is played in the real position as
+     * {@code mapMove(inverse(transform), move, size)}.
+     *
+     * @param state the position
+     * @return the canonical key and the transform leading to it
+     */
+    public static Canonical canonicalize(SearchState state) {
+        long best = key(state, IDENTITY);
+        int bestTransform = IDENTITY;
+        for (int transform = 1; transform < TRANSFORMS; transform++) {
+            long key = key(state, transform);
+            if (key < best) {
+                best = key;
+                bestTransform = transform;
+            }
+        }
+        return new Canonical(best, bestTransform);
+    }
+
+    /**
+     * Builds a transformed position, for instance to search the canonical form.
+     *
+     * @param state     the position
+     * @param transform the transform id
+     * @return a new state, without move history
+     */
+    public static SearchState transform(SearchState state, int transform) {
+        Board board = state.getBoard();
+        int size = board.getSize();
+        boolean swap = swapsColors(transform);
+        Board image = new Board(size);
+        for (int cell = 0; cell < size * size; cell++) {
+            Piece piece = board.getPiece(cell);
+            if (piece instanceof Token && swap) {
+                piece = Token.of(SearchState.opponent(piece.getColor()), piece.getSymbol());
+            }
+            if (piece != null) {
+                image.putPiece(mapCell(transform, cell, size), piece);
+            }
+        }
+        Colors pink = swap ? Colors.BLACK : Colors.PINK;
+        Colors black = swap ? Colors.PINK : Colors.BLACK;
+        Colors side = swap ? SearchState.opponent(state.getSideToMove()) : state.getSideToMove();
+        return new SearchState(image,
+                state.tokens(pink, Symbol.X), state.tokens(pink, Symbol.O),
+                state.tokens(black, Symbol.X), state.tokens(black, Symbol.O),
+                side, state.getPhase(), state.getLastMovedSymbol());
+    }
+}
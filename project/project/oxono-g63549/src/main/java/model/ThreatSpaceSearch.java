@@ -0,0 +1,270 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Looks for forced wins of the side to move, considering only turns that threaten to
+ * win on the next turn.
+ * The attacker only tries placements that leave a cell where one more of its tokens
+ * would complete a color or a symbol line, so the tree stays narrow; the defender
+ * tries every legal turn, so a win found is a proven win. A defender that can win at
+ * once, for instance by completing a symbol line the attacker prepared, refutes the
+ * line. Double threats, on two cells or on a color line and a symbol line at once,
+ * cannot both be blocked in one turn and are found that way.
+ * Depths are counted in attacker turns and searched shortest first. Results are
+ * memorised by position key, and a node budget keeps every call in the milliseconds.
+ * As a step before a move, it plays a forced win found within its own limits.
+ */
+public class ThreatSpaceSearch implements PreMoveStage {
+    /** Default number of attacker turns, the winning one included. */
+    public static final int DEFAULT_MAX_DEPTH = 4;
+    /** Default number of positions searched before giving up. */
+    public static final long DEFAULT_MAX_NODES = 200_000;
+
+    private static final int MAX_DEPTH = 16;
+    private static final int CACHE_BITS = 16;
+    private static final Symbol[] SYMBOLS = Symbol.values();
+
+    private final MoveList[] moveLists = new MoveList[2 * MAX_DEPTH + 1];
+    /** Memorised attacker nodes: a positive value is a win within that many turns, a negative one no win within its opposite. */
+    private final long[] cacheKeys = new long[1 << CACHE_BITS];
+    private final byte[] cacheValues = new byte[1 << CACHE_BITS];
+    private final int depthLimit;
+    private final long nodeLimit;
+
+    private SearchState state;
+    private long maxNodes;
+    private long nodes;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+    private int winningMove = MoveCodec.NO_MOVE;
+    private int winDepth;
+
+    public ThreatSpaceSearch() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Creates a search with its own limits.
+     *
+     * @param maxDepth the longest win looked for, in attacker turns
+     * @param maxNodes the number of positions searched before giving up
+     */
+    public ThreatSpaceSearch(int maxDepth, long maxNodes) {
+        this.depthLimit = maxDepth;
+        this.nodeLimit = maxNodes;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Looks for a forced win with the limits of the search.
+     *
+     * @param state the position, with the attacker to move; it is played on and restored
+     * @return the first move of the shortest forced win found, or MoveCodec.NO_MOVE
+     */
+    public int findForcedWin(SearchState state) {
+        return findForcedWin(state, depthLimit, nodeLimit);
+    }
+
+    /**
+     * Looks for a forced win with the limits of the search; the node budget bounds the
+     * time instead of the given budget.
+     */
+    @Override
+    public int probe(SearchState state, long budgetMillis) {
+        return findForcedWin(state);
+    }
+
+    /**
+     * Looks for a forced win of the side to move.
+     *
+     * @param state    the position, with the attacker to move; it is played on and restored
+     * @param maxDepth the longest win looked for, in attacker turns
+     * @param maxNodes the number of positions searched before giving up
+     * @return the first move of the shortest forced win found, or MoveCodec.NO_MOVE
+     */
+    public int findForcedWin(SearchState state, int maxDepth, long maxNodes) {
+        this.state = state;
+        this.maxNodes = maxNodes;
+        nodes = 0;
+        aborted = false;
+        winningMove = MoveCodec.NO_MOVE;
+        winDepth = 0;
+        Arrays.fill(cacheValues, (byte) 0);
+        if (state.getPhase() != TurnPhase.MOVE_TOTEM) {
+            return MoveCodec.NO_MOVE;
+        }
+
+        int limit = Math.min(maxDepth, MAX_DEPTH);
+        for (int depth = 1; depth <= limit && !aborted; depth++) {
+            if (attackerWins(depth, 0)) {
+                winDepth = depth;
+                return winningMove;
+            }
+        }
+        return MoveCodec.NO_MOVE;
+    }
+
+    /**
+     * Checks if the side to move wins within depth turns of its own.
+     */
+    private boolean attackerWins(int depth, int ply) {
+        if (++nodes > maxNodes || stopRequested) {
+            aborted = true;
+        }
+        if (aborted) {
+            return false;
+        }
+        Board board = state.getBoard();
+        Colors attacker = state.getSideToMove();
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        state.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (GameRules.completesAlignment(board, MoveCodec.tokenCell(move), attacker, MoveCodec.symbol(move))) {
+                if (ply == 0) {
+                    winningMove = move;
+                }
+                return true;
+            }
+        }
+        if (depth == 1 || moves.isEmpty()) {
+            return false;
+        }
+
+        long key = state.getKey();
+        int slot = (int) key & (cacheKeys.length - 1);
+        if (cacheKeys[slot] == key && cacheValues[slot] != 0) {
+            int value = cacheValues[slot];
+            if (value > 0 && value <= depth && ply > 0) {
+                return true;
+            }
+            if (value < 0 && -value >= depth) {
+                return false;
+            }
+        }
+
+        boolean won = false;
+        for (int i = 0; i < moves.size() && !won; i++) {
+            int move = moves.get(i);
+            state.make(move);
+            if (createsThreat(board, MoveCodec.tokenCell(move), attacker)) {
+                won = defenderLoses(depth, ply + 1);
+                if (won && ply == 0) {
+                    winningMove = move;
+                }
+            }
+            state.unmake(move);
+        }
+        if (!aborted) {
+            cacheKeys[slot] = key;
+            cacheValues[slot] = (byte) (won ? depth : -depth);
+        }
+        return won;
+    }
+
+    /**
+     * Checks if every turn of the side to move lets the attacker win within depth - 1 turns.
+     */
+    private boolean defenderLoses(int depth, int ply) {
+        Board board = state.getBoard();
+        Colors defender = state.getSideToMove();
+        Colors attacker = SearchState.opponent(defender);
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        state.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return false;
+        }
+
+        // Immediate wins first, then placements on a threatened cell, which are the
+        // replies most likely to refute the attack.
+        int blocks = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int cell = MoveCodec.tokenCell(move);
+            if (GameRules.completesAlignment(board, cell, defender, MoveCodec.symbol(move))) {
+                return false;
+            }
+            if (isThreat(board, cell, attacker)) {
+                moves.swap(blocks++, i);
+            }
+        }
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            state.make(move);
+            boolean lost = attackerWins(depth - 1, ply + 1);
+            state.unmake(move);
+            if (!lost) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a token just placed leaves its owner a cell that would complete a line.
+     * Only the row and the column of the token can hold a new threat.
+     */
+    private boolean createsThreat(Board board, int cell, Colors attacker) {
+        int[][] rays = board.getGeometry().rays[cell];
+        for (int[] ray : rays) {
+            for (int step = 0; step < ray.length && step < BoardGeometry.WINDOW_LENGTH - 1; step++) {
+                int target = ray[step];
+                if (!board.isOccupied(target) && isThreat(board, target, attacker)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a token of the attacker, of a symbol it still has, would complete a line on a cell.
+     */
+    private boolean isThreat(Board board, int cell, Colors attacker) {
+        for (Symbol symbol : SYMBOLS) {
+            if (state.tokens(attacker, symbol) > 0 && GameRules.completesAlignment(board, cell, attacker, symbol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Asks the running search to give up, from any thread.
+     * The request also holds for the next searches, until {@link #clearStop()}.
+     */
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets a stop request, before a new move. A search does not do it by itself, so a
+     * stop sent just before it starts still applies.
+     */
+    @Override
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Returns the length of the last win found, in attacker turns.
+     *
+     * @return the number of turns, or 0 if no win was found
+     */
+    public int getWinDepth() { return winDepth; }
+    public long getNodes() { return nodes; }
+
+    /**
+     * Checks if the last call ran out of nodes or was stopped before finishing.
+     *
+     * @return true if the answer may have missed a win
+     */
+    public boolean isAborted() { return aborted; }
+}
@@ -0,0 +1,208 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+import Util.MoveStrategy;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time management: a per-move limit for the bots, a game clock with increment per
+ * player, and a hard stop.
+ * Before a bot move, the budget is the smallest of the per-move limit, the hard stop and
+ * a share of the clock (the time left divided by the turns the player has left, plus
+ * the increment), minus a small overhead for the snapshot and the move command.
+ * An {@link AnytimeMoveStrategy} gets that budget and is stopped by a watchdog at the
+ * hard deadline if it overruns it; other strategies are only timed.
+ * The {@link GameModel} charges the human turns to the clock too, and a player whose
+ * clock runs out loses the game at the end of the turn.
+ */
+public final class TimeControl {
+    /** Value of a limit that does not apply. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    /** Default per-move limit of the bots, in milliseconds. */
+    public static final long DEFAULT_MOVE_TIME = 1000;
+    /** Time kept aside for everything around the search, in milliseconds. */
+    static final long MOVE_OVERHEAD = 5;
+
+    private static final ScheduledExecutorService WATCHDOG = createWatchdog();
+
+    private final long moveTimeMillis;
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final long hardStopMillis;
+    private final long[] remaining = new long[2];
+    private long lastMoveMillis;
+
+    /**
+     * Creates a time control.
+     *
+     * @param moveTimeMillis  the limit of a move, or UNLIMITED
+     * @param baseMillis      the clock of each player at the start of a game, or UNLIMITED
+     * @param incrementMillis the time added to a clock after each move
+     * @param hardStopMillis  the time after which a search is stopped, or UNLIMITED
+     */
+    public TimeControl(long moveTimeMillis, long baseMillis, long incrementMillis, long hardStopMillis) {
+        if (moveTimeMillis <= 0 || baseMillis <= 0 || incrementMillis < 0 || hardStopMillis <= 0) {
+            throw new IllegalArgumentException("Time limits must be positive");
+        }
+        this.moveTimeMillis = moveTimeMillis;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.hardStopMillis = hardStopMillis;
+        reset();
+    }
+
+    /**
+     * Creates a fixed time per move, which is also the hard stop.
+     *
+     * @param moveTimeMillis the time of a move, in milliseconds
+     * @return the time control
+     */
+    public static TimeControl perMove(long moveTimeMillis) {
+        return new TimeControl(moveTimeMillis, UNLIMITED, 0, moveTimeMillis);
+    }
+
+    /**
+     * Creates a game clock with increment. A move is stopped before it can empty the clock.
+     *
+     * @param baseMillis      the clock of each player at the start, in milliseconds
+     * @param incrementMillis the time added after each move, in milliseconds
+     * @return the time control
+     */
+    public static TimeControl gameClock(long baseMillis, long incrementMillis) {
+        return new TimeControl(UNLIMITED, baseMillis, incrementMillis, UNLIMITED);
+    }
+
+    /**
+     * Gives both players a full clock again, for a new game.
+     */
+    public void reset() {
+        remaining[0] = baseMillis;
+        remaining[1] = baseMillis;
+        lastMoveMillis = 0;
+    }
+
+    /**
+     * Returns the time a player should spend on the next move.
+     *
+     * @param colors    the color of the player
+     * @param turnsLeft the number of turns the player can still play
+     * @return the budget, in milliseconds, at least 1
+     */
+    public long budgetFor(Colors colors, int turnsLeft) {
+        long budget = Math.min(moveTimeMillis, hardLimitFor(colors));
+        if (hasClock()) {
+            long share = remaining[index(colors)] / Math.max(turnsLeft, 1) + incrementMillis;
+            budget = Math.min(budget, share);
+        }
+        return Math.max(budget == UNLIMITED ? UNLIMITED : budget - MOVE_OVERHEAD, 1);
+    }
+
+    /**
+     * Returns the time after which the move of a player is stopped.
+     *
+     * @param colors the color of the player
+     * @return the hard limit, in milliseconds, or UNLIMITED
+     */
+    public long hardLimitFor(Colors colors) {
+        long limit = hardStopMillis;
+        if (hasClock()) {
+            limit = Math.min(limit, Math.max(remaining[index(colors)] - MOVE_OVERHEAD, 1));
+        }
+        return limit;
+    }
+
+    /**
+     * Computes the move of the player to move within its budget, then charges its clock.
+     * An anytime strategy is cleared of any earlier stop request, then stopped at the hard limit.
+     *
+     * @param strategy  the strategy of the player to move
+     * @param gameModel the game
+     * @return the packed move
+     */
+    public int play(MoveStrategy strategy, GameModel gameModel) {
+        Colors colors = gameModel.getCurrentPlayerColor();
+        int turnsLeft = gameModel.getRemainingTokens(Symbol.X) + gameModel.getRemainingTokens(Symbol.O);
+        long start = System.nanoTime();
+        int move;
+        if (strategy instanceof AnytimeMoveStrategy anytime) {
+            long hardLimit = hardLimitFor(colors);
+            anytime.clearStop();
+            ScheduledFuture<?> watchdog = hardLimit == UNLIMITED
+                    ? null : WATCHDOG.schedule(anytime::stop, hardLimit, TimeUnit.MILLISECONDS);
+            try {
+                move = anytime.calculatePackedMove(gameModel, budgetFor(colors, turnsLeft));
+            } finally {
+                if (watchdog != null) {
+                    watchdog.cancel(false);
+                }
+            }
+        } else {
+            move = strategy.calculatePackedMove(gameModel);
+        }
+        charge(colors, (System.nanoTime() - start) / 1_000_000L);
+        return move;
+    }
+
+    /**
+     * Charges the time of a move to the clock of a player and adds the increment.
+     *
+     * @param colors       the color of the player
+     * @param elapsedMillis the time spent on the move
+     */
+    public void charge(Colors colors, long elapsedMillis) {
+        lastMoveMillis = elapsedMillis;
+        if (hasClock()) {
+            remaining[index(colors)] += incrementMillis - elapsedMillis;
+        }
+    }
+
+    /**
+     * Checks if a player ran out of time.
+     *
+     * @param colors the color of the player
+     * @return true if the clock of the player is below zero
+     */
+    public boolean isFlagged(Colors colors) {
+        return hasClock() && remaining[index(colors)] < 0;
+    }
+
+    public boolean hasClock() {
+        return baseMillis != UNLIMITED;
+    }
+
+    public long getRemaining(Colors colors) { return remaining[index(colors)]; }
+    public long getLastMoveMillis() { return lastMoveMillis; }
+
+    /**
+     * Returns the System.nanoTime() deadline a time limit gives, without overflowing.
+     *
+     * @param startNanos the start, from System.nanoTime()
+     * @param millis     the time limit, in milliseconds, or UNLIMITED
+     * @return the deadline, or Long.MAX_VALUE for limits too large to reach
+     */
+    static long deadline(long startNanos, long millis) {
+        long nanos = millis >= Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : millis * 1_000_000L;
+        long deadline = startNanos + nanos;
+        return deadline < startNanos ? Long.MAX_VALUE : deadline;
+    }
+
+    private static int index(Colors colors) {
+        return colors == Colors.PINK ? 0 : 1;
+    }
+
+    private static ScheduledExecutorService createWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "search-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        // Started now, so the first hard stop is not late by a thread start.
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+}
@@ -1,9 +1,30 @@
 package model;
 
 public class Token extends Piece{
+    private static final Token[] TOKENS = {
+            new Token(Colors.PINK, Symbol.X), new Token(Colors.PINK, Symbol.O),
+            new Token(Colors.BLACK, Symbol.X), new Token(Colors.BLACK, Symbol.O)
+    };
+
     public Token(Colors colors, Symbol symbol) {
         super(colors, symbol);
     }
+
+    /**
+     * Returns the shared token of a player color and a symbol.
+     * Tokens are immutable, so one instance per kind is enough for every board and bag.
+     *
+     * @param colors the color of the token (PINK or BLACK)
+     * @param symbol the symbol of the token
+     * @return the shared token
+     */
+    public static Token of(Colors colors, Symbol symbol) {
+        if (colors == Colors.BLUE) {
+            throw new IllegalArgumentException("Tokens are pink or black");
+        }
+        return TOKENS[(colors == Colors.PINK ? 0 : 2) + symbol.ordinal()];
+    }
+
     @Override
     public String toString() {
         return "Token{" +
@@ -3,12 +3,24 @@ package model;
 import java.util.Objects;
 
 public class Totem extends Piece {
+    private static final Totem X = new Totem(Symbol.X);
+    private static final Totem O = new Totem(Symbol.O);
 
 
     public Totem(Symbol symbol) {
         super(Colors.BLUE, symbol);
     }
 
+    /**
+     * Returns the shared totem of a symbol.
+     *
+     * @param symbol the symbol of the totem
+     * @return the shared totem
+     */
+    public static Totem of(Symbol symbol) {
+        return symbol == Symbol.X ? X : O;
+    }
+
 
     public String toString() {
         return "Totem{" +
@@ -0,0 +1,413 @@
+package model;
+
+import Util.MoveStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Plays games between strategies headless, to measure how they compare.
+ * Every pair of entrants meets on every board size for the same number of games,
+ * taking the first turn in turn. The games run in parallel, each on its own
+ * {@link GameModel} without observers nor console messages; each thread keeps one
+ * strategy per entrant from one game to the next, under the same per-move
+ * {@link TimeControl} for all, and closes them when it is done. By default as many
+ * games run at once as the cores allow for the entrant using the most threads per
+ * move, so parallel strategies are not slowed down by one another. A strategy that
+ * gives no legal move after a few attempts loses the game.
+ * <p>
+ * A {@link Result} sums up the games of a pair on a board size: wins, draws and losses
+ * of the first entrant, the Elo difference they give with its 95% confidence interval,
+ * the average game length and the moves the strategies computed per second.
+ *
+ * Usage: {@code Tournament [--players P1,P2,...] [--sizes S1,S2,...] [--games G]
+ * [--move-time MS] [--threads T] [--workers W]}, the players being names known by
+ * {@link #entrant(String, int)} and W the workers of the parallel ones.
+ * From Maven: {@code mvn -Ptournament compile exec:exec -Dtournament.args="--players random,alphabeta"}.
+ */
+public class Tournament {
+    /** Default per-move limit of the strategies, in milliseconds. */
+    public static final long DEFAULT_MOVE_TIME = 50;
+    /** Moves asked from a strategy before it loses the game, as the bots of a live game. */
+    private static final int MAX_ATTEMPTS = 10;
+    /** Normal quantile of a two-sided 95% confidence interval. */
+    private static final double Z_95 = 1.959964;
+
+    /**
+     * A named strategy taking part in a tournament.
+     *
+     * @param name    the name used in the results
+     * @param threads the number of threads the strategy searches a move with
+     * @param factory creates a new instance of the strategy, once per thread
+     */
+    public record Entrant(String name, int threads, Supplier<MoveStrategy> factory) {
+    }
+
+    /**
+     * The games of two entrants on one board size, from the side of the first one.
+     *
+     * @param first     the name of the first entrant
+     * @param second    the name of the second entrant
+     * @param boardSize the board size
+     * @param wins      the games won by the first entrant
+     * @param draws     the drawn games
+     * @param losses    the games lost by the first entrant
+     * @param moves     the moves played in all the games
+     * @param moveNanos the time the strategies spent computing them, in nanoseconds
+     */
+    public record Result(String first, String second, int boardSize, int wins, int draws, int losses,
+                         long moves, long moveNanos) {
+
+        public int games() {
+            return wins + draws + losses;
+        }
+
+        /**
+         * Returns the average score of the first entrant.
+         *
+         * @return 1 per win and one half per draw, divided by the number of games
+         */
+        public double score() {
+            return (wins + 0.5 * draws) / games();
+        }
+
+        /**
+         * Returns the Elo difference between the first and the second entrant
+         * matching the score.
+         *
+         * @return the difference, infinite if one entrant won every game
+         */
+        public double eloDifference() {
+            return elo(score());
+        }
+
+        /**
+         * Returns the lower bound of the 95% confidence interval of the Elo difference,
+         * from the standard error of the score over the games.
+         *
+         * @return the lower bound
+         */
+        public double eloLower() {
+            return elo(score() - Z_95 * scoreError());
+        }
+
+        /**
+         * Returns the upper bound of the 95% confidence interval of the Elo difference.
+         *
+         * @return the upper bound
+         */
+        public double eloUpper() {
+            return elo(score() + Z_95 * scoreError());
+        }
+
+        private double scoreError() {
+            double score = score();
+            double variance = (wins * (1 - score) * (1 - score)
+                    + draws * (0.5 - score) * (0.5 - score)
+                    + losses * score * score) / games();
+            return Math.sqrt(variance / games());
+        }
+
+        public double averageLength() {
+            return (double) moves / games();
+        }
+
+        public double movesPerSecond() {
+            return moveNanos == 0 ? 0 : moves * 1e9 / moveNanos;
+        }
+
+        private static double elo(double score) {
+            if (score <= 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (score >= 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return -400 * Math.log10(1 / score - 1);
+        }
+    }
+
+    /** One scheduled game: entrant indexes, board size and index of its result. */
+    private record Match(int pink, int black, int boardSize, int pairing) {
+    }
+
+    /** Outcome of one game: the winning color, or null for a draw. */
+    private record Game(Colors winner, int moves, long moveNanos) {
+    }
+
+    private final List<Entrant> entrants;
+    private final List<Integer> boardSizes;
+    private final int gamesPerPairing;
+    private final long moveTimeMillis;
+
+    /**
+     * Creates a tournament.
+     *
+     * @param entrants        the strategies, at least two
+     * @param boardSizes      the board sizes played
+     * @param gamesPerPairing the games of each pair of entrants on each board size
+     * @param moveTimeMillis  the per-move limit of the strategies, in milliseconds
+     */
+    public Tournament(List<Entrant> entrants, List<Integer> boardSizes, int gamesPerPairing, long moveTimeMillis) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        }
+        if (gamesPerPairing < 1) {
+            throw new IllegalArgumentException("Each pairing needs at least one game");
+        }
+        this.entrants = List.copyOf(entrants);
+        this.boardSizes = List.copyOf(boardSizes);
+        this.gamesPerPairing = gamesPerPairing;
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    /**
+     * Creates an entrant from its name, parallel strategies using every core.
+     *
+     * @param name the name of the strategy (see {@link #entrant(String, int)})
+     * @return the entrant
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Entrant entrant(String name) {
+        return entrant(name, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an entrant from its name: random, intelligent, alphabeta, mcts,
+     * parallel-mcts or perfect, optionally prefixed by forced- to look for forced wins
+     * first, as the bots of the game do (see {@link ForcedWinMoveStrategy}).
+     *
+     * @param name    the name of the strategy
+     * @param workers the number of workers of a parallel strategy
+     * @return the entrant
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static Entrant entrant(String name, int workers) {
+        String strategy = name.startsWith("forced-") ? name.substring("forced-".length()) : name;
+        int threads = strategy.equals("parallel-mcts") ? workers : 1;
+        Supplier<MoveStrategy> factory = switch (strategy) {
+            case "random" -> RandomMoveStrategy::new;
+            case "intelligent" -> IntelligentMoveStrategy::new;
+            case "alphabeta" -> AlphaBetaMoveStrategy::new;
+            case "mcts" -> MctsMoveStrategy::new;
+            case "parallel-mcts" -> () -> new ParallelMctsMoveStrategy(ParallelMctsSearch.Mode.TREE, workers,
+                    Long.MAX_VALUE, MctsMoveStrategy.DEFAULT_TIME_LIMIT);
+            case "perfect" -> () -> new PerfectMoveStrategy(new AlphaBetaMoveStrategy());
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+        if (strategy.equals(name)) {
+            return new Entrant(name, threads, factory);
+        }
+        return new Entrant(name, threads, () -> new ForcedWinMoveStrategy(factory.get()));
+    }
+
+    /**
+     * Returns the number of games that can run at once without running more search
+     * threads than there are cores.
+     *
+     * @return the cores divided by the threads of the most parallel entrant, at least 1
+     */
+    public int defaultThreads() {
+        int perGame = entrants.stream().mapToInt(Entrant::threads).max().orElse(1);
+        return Math.max(Runtime.getRuntime().availableProcessors() / Math.max(perGame, 1), 1);
+    }
+
+    /**
+     * Plays all the games.
+     *
+     * @param threads the number of games played at the same time
+     * @return one result per pair of entrants and board size, in the order of the
+     *         board sizes, then of the entrants
+     * @throws InterruptedException if the thread is interrupted while waiting for the games
+     */
+    public List<Result> play(int threads) throws InterruptedException {
+        List<Match> matches = new ArrayList<>();
+        int pairings = 0;
+        for (int boardSize : boardSizes) {
+            for (int first = 0; first < entrants.size(); first++) {
+                for (int second = first + 1; second < entrants.size(); second++) {
+                    for (int game = 0; game < gamesPerPairing; game++) {
+                        matches.add(game % 2 == 0
+                                ? new Match(first, second, boardSize, pairings)
+                                : new Match(second, first, boardSize, pairings));
+                    }
+                    pairings++;
+                }
+            }
+        }
+
+        Game[] games = new Game[matches.size()];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    MoveStrategy[] strategies = new MoveStrategy[entrants.size()];
+                    try {
+                        for (int i = next.getAndIncrement(); i < games.length; i = next.getAndIncrement()) {
+                            Match match = matches.get(i);
+                            games[i] = playGame(strategy(strategies, match.pink()),
+                                    strategy(strategies, match.black()), match.boardSize());
+                        }
+                    } finally {
+                        close(strategies);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (int pairing = 0; pairing < pairings; pairing++) {
+            results.add(summarize(matches, games, pairing));
+        }
+        return results;
+    }
+
+    /**
+     * Releases the threads and pools of the strategies of a worker.
+     */
+    private static void close(MoveStrategy[] strategies) {
+        for (MoveStrategy strategy : strategies) {
+            if (strategy instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not release a strategy", e);
+                }
+            }
+        }
+    }
+
+    private MoveStrategy strategy(MoveStrategy[] strategies, int entrant) {
+        if (strategies[entrant] == null) {
+            strategies[entrant] = entrants.get(entrant).factory().get();
+        }
+        return strategies[entrant];
+    }
+
+    /**
+     * Plays one game to its end.
+     */
+    private Game playGame(MoveStrategy pink, MoveStrategy black, int boardSize) {
+        GameModel gameModel = new GameModel(boardSize);
+        gameModel.setVerbose(false);
+        TimeControl timeControl = TimeControl.perMove(moveTimeMillis);
+        MoveList moves = new MoveList();
+        int played = 0;
+        long moveNanos = 0;
+        while (!gameModel.isGameOver()) {
+            moves.clear();
+            gameModel.createSearchState().generateMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            MoveStrategy strategy = gameModel.isCurrentPlayerPink() ? pink : black;
+            long start = System.nanoTime();
+            int move = MoveCodec.NO_MOVE;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS && !moves.contains(move); attempt++) {
+                move = timeControl.play(strategy, gameModel);
+            }
+            moveNanos += System.nanoTime() - start;
+            if (!moves.contains(move)) {
+                return new Game(SearchState.opponent(gameModel.getCurrentPlayerColor()), played, moveNanos);
+            }
+            new CompositeMoveCommand(gameModel, move).execute();
+            played++;
+        }
+        Player winner = gameModel.getWinner();
+        return new Game(winner == null ? null : winner.getColor(), played, moveNanos);
+    }
+
+    private Result summarize(List<Match> matches, Game[] games, int pairing) {
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long moves = 0;
+        long moveNanos = 0;
+        Match firstMatch = null;
+        for (int i = 0; i < games.length; i++) {
+            Match match = matches.get(i);
+            if (match.pairing() != pairing) {
+                continue;
+            }
+            if (firstMatch == null) {
+                firstMatch = match;
+            }
+            Game game = games[i];
+            Colors firstColor = match.pink() == firstMatch.pink() ? Colors.PINK : Colors.BLACK;
+            if (game.winner() == null) {
+                draws++;
+            } else if (game.winner() == firstColor) {
+                wins++;
+            } else {
+                losses++;
+            }
+            moves += game.moves();
+            moveNanos += game.moveNanos();
+        }
+        return new Result(entrants.get(firstMatch.pink()).name(), entrants.get(firstMatch.black()).name(),
+                firstMatch.boardSize(), wins, draws, losses, moves, moveNanos);
+    }
+
+    public List<Entrant> getEntrants() { return entrants; }
+    public List<Integer> getBoardSizes() { return boardSizes; }
+    public int getGamesPerPairing() { return gamesPerPairing; }
+
+    public static void main(String[] args) throws InterruptedException {
+        String players = "intelligent,alphabeta,mcts";
+        String sizes = "6";
+        int games = 100;
+        long moveTime = DEFAULT_MOVE_TIME;
+        int threads = 0;
+        int workers = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--players" -> players = args[++i];
+                case "--sizes" -> sizes = args[++i];
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--move-time" -> moveTime = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--workers" -> workers = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        List<Entrant> entrants = new ArrayList<>();
+        for (String name : players.split(",")) {
+            entrants.add(entrant(name.trim(), workers));
+        }
+        List<Integer> boardSizes = new ArrayList<>();
+        for (String size : sizes.split(",")) {
+            boardSizes.add(Integer.parseInt(size.trim()));
+        }
+
+        Tournament tournament = new Tournament(entrants, boardSizes, games, moveTime);
+        if (threads <= 0) {
+            threads = tournament.defaultThreads();
+        }
+        long start = System.nanoTime();
+        List<Result> results = tournament.play(threads);
+        for (Result result : results) {
+            System.out.printf("%dx%d %s vs %s: +%d =%d -%d, Elo %+.0f [%+.0f, %+.0f], %.1f moves per game, %,.0f moves/s%n",
+                    result.boardSize(), result.boardSize(), result.first(), result.second(),
+                    result.wins(), result.draws(), result.losses(),
+                    result.eloDifference(), result.eloLower(), result.eloUpper(),
+                    result.averageLength(), result.movesPerSecond());
+        }
+        System.out.printf("%,d games in %.1f s on %d threads%n",
+                results.stream().mapToInt(Result::games).sum(), (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,185 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table kept in two {@code long[]} arrays, so a table of
+ * millions of entries costs no object per entry.
+ * Each slot holds a Zobrist key and one packed data word:
+ * bits 0-31 the score, bits 32-47 the best packed move plus one, bits 48-55 the depth,
+ * bits 56-57 the bound type and bits 58-63 the generation of the search that stored it.
+ * Slots come in buckets of two: the first keeps the deepest entry of the current
+ * generation, the second always takes the newest entry.
+ * A table can be shared by several strategies and reused from one move to the next;
+ * call {@link #newSearch()} before each search so stale entries get replaced first.
+ * <p>
+ * The table can also be shared by threads searching at the same time, without locks.
+ * A slot stores {@code key ^ data} instead of the key, so an entry whose two words
+ * were written by different threads no longer matches its key and reads as a miss.
+ * The usage counters are striped, and only approximate while threads are writing.
+ */
+public class TranspositionTable {
+    /** Bound types. A stored entry never has bound 0, so a data word of 0 means a miss. */
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    /** Data word returned by {@link #probe(long)} when the key is not in the table. */
+    public static final long MISS = 0L;
+
+    /** Default memory budget, in megabytes. */
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int BYTES_PER_BUCKET = 2 * 2 * Long.BYTES;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int generation;
+    private final LongAdder used = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * Creates a table within a memory budget. The number of buckets is the largest
+     * power of two that fits.
+     *
+     * @param megabytes the memory budget, in megabytes
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        buckets = Math.min(buckets, 1L << 29);
+        this.keys = new long[(int) (2 * buckets)];
+        this.data = new long[(int) (2 * buckets)];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Starts a new search: entries of older searches become the first to be replaced.
+     * The hit counters are reset.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed data word, or MISS
+     */
+    public long probe(long key) {
+        probes.increment();
+        int slot = slotOf(key);
+        for (int i = slot; i < slot + 2; i++) {
+            long entry = data[i];
+            if (entry != MISS && (keys[i] ^ entry) == key) {
+                hits.increment();
+                return entry;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the result of a search.
+     *
+     * @param key   the Zobrist key of the position
+     * @param depth the remaining depth of the search, between 0 and 255
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param score the score
+     * @param move  the best packed move, or MoveCodec.NO_MOVE
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int current = generation;
+        int slot = slotOf(key);
+        long stored = data[slot];
+        if (stored != MISS && (keys[slot] ^ stored) != key
+                && generation(stored) == current && depth(stored) > depth) {
+            slot++;
+        }
+        if (data[slot] == MISS) {
+            used.increment();
+        }
+        long entry = pack(depth, bound, score, move, current);
+        keys[slot] = key ^ entry;
+        data[slot] = entry;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, MISS);
+        used.reset();
+        probes.reset();
+        hits.reset();
+    }
+
+    private int slotOf(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+
+    static long pack(int depth, int bound, int score, int move, int generation) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) ((move + 1) & 0xFFFF) << 32)
+                | ((long) (depth & 0xFF) << 48)
+                | ((long) bound << 56)
+                | ((long) generation << 58);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        return (int) ((entry >>> 32) & 0xFFFF) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 48) & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 56) & 0x3);
+    }
+
+    static int generation(long entry) {
+        return (int) (entry >>> 58);
+    }
+
+    /**
+     * Returns the share of probes since the last {@link #newSearch()} that found their key.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long count = probes.sum();
+        return count == 0 ? 0 : (double) hits.sum() / count;
+    }
+
+    /**
+     * Returns the share of slots holding an entry.
+     *
+     * @return the fill rate, between 0 and 1
+     */
+    public double getFillRate() {
+        return (double) used.sum() / keys.length;
+    }
+
+    public int getCapacity() { return keys.length; }
+    public long getProbes() { return probes.sum(); }
+    public long getHits() { return hits.sum(); }
+}
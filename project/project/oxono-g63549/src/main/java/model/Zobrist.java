@@ -0,0 +1,114 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys used to hash Oxono positions.
+ * The keys are generated from a fixed seed so a position always hashes to the same
+ * value, across games and across runs.
+ */
+public final class Zobrist {
+    /** Number of distinct piece kinds: two totems and four tokens. */
+    public static final int PIECE_KINDS = 6;
+    private static final int MAX_CELLS = 100;
+    private static final int MAX_BAG_COUNT = 64;
+
+    private static final long[] PIECE_KEYS = new long[PIECE_KINDS * MAX_CELLS];
+    private static final long[] BAG_KEYS = new long[4 * (MAX_BAG_COUNT + 1)];
+    private static final long SIDE_TO_MOVE_KEY;
+    private static final long PLACE_TOKEN_PHASE_KEY;
+    /** Keys of the symbol to place during the token placement phase. */
+    private static final long[] PLACED_SYMBOL_KEYS = new long[2];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x0A0B0C0D0E0FL);
+        for (int i = 0; i < PIECE_KEYS.length; i++) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < BAG_KEYS.length; i++) {
+            BAG_KEYS[i] = random.nextLong();
+        }
+        SIDE_TO_MOVE_KEY = random.nextLong();
+        PLACE_TOKEN_PHASE_KEY = random.nextLong();
+        for (int i = 0; i < PLACED_SYMBOL_KEYS.length; i++) {
+            PLACED_SYMBOL_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the kind of a piece: 0 and 1 for the X and O totems,
+     * 2 to 5 for the pink X, pink O, black X and black O tokens.
+     *
+     * @param piece the piece
+     * @return the kind of the piece
+     */
+    public static int pieceKind(Piece piece) {
+        if (piece instanceof Totem) {
+            return piece.getSymbol().ordinal();
+        }
+        return tokenKind(piece.getColor(), piece.getSymbol());
+    }
+
+    /**
+     * Returns the kind of a token of the given color and symbol.
+     *
+     * @param colors the color of the token (PINK or BLACK)
+     * @param symbol the symbol of the token
+     * @return the kind of the token
+     */
+    public static int tokenKind(Colors colors, Symbol symbol) {
+        return 2 + (colors == Colors.PINK ? 0 : 2) + symbol.ordinal();
+    }
+
+    /**
+     * Returns the key of a piece kind standing in a cell.
+     *
+     * @param kind the piece kind
+     * @param cell the index of the cell
+     * @return the key
+     */
+    public static long pieceKey(int kind, int cell) {
+        return PIECE_KEYS[kind * MAX_CELLS + cell];
+    }
+
+    /**
+     * Returns the key of a bag holding the given number of tokens of a symbol.
+     *
+     * @param colors the color of the bag owner
+     * @param symbol the symbol of the tokens
+     * @param count  the number of tokens left
+     * @return the key
+     */
+    public static long bagKey(Colors colors, Symbol symbol, int count) {
+        int slot = (colors == Colors.PINK ? 0 : 2) + symbol.ordinal();
+        return BAG_KEYS[slot * (MAX_BAG_COUNT + 1) + Math.min(count, MAX_BAG_COUNT)];
+    }
+
+    /**
+     * Returns the key mixed in when the black player is to move.
+     *
+     * @return the key
+     */
+    public static long sideToMoveKey() {
+        return SIDE_TO_MOVE_KEY;
+    }
+
+    /**
+     * Returns the key mixed in for a turn phase and, during the token placement phase,
+     * the symbol of the totem moved, which decides where the token may go.
+     *
+     * @param phase           the phase
+     * @param lastMovedSymbol the symbol of the totem moved this turn, or null
+     * @return the key, zero for the totem movement phase
+     */
+    public static long phaseKey(TurnPhase phase, Symbol lastMovedSymbol) {
+        if (phase != TurnPhase.PLACE_TOKEN) {
+            return 0L;
+        }
+        return lastMovedSymbol == null
+                ? PLACE_TOKEN_PHASE_KEY : PLACE_TOKEN_PHASE_KEY ^ PLACED_SYMBOL_KEYS[lastMovedSymbol.ordinal()];
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class AlphaBetaSearchTest {
+
+    /** Pink to move on 6x6, with three black X tokens waiting for a fourth at (0,3). */
+    static SearchState winInOnePosition() {
+        Board board = new Board(6);
+        board.putPiece(new Position(2, 3), Totem.of(Symbol.X));
+        board.putPiece(new Position(5, 5), Totem.of(Symbol.O));
+        for (int y = 0; y < 3; y++) {
+            board.putPiece(new Position(0, y), Token.of(Colors.BLACK, Symbol.X));
+        }
+        return new SearchState(board, 8, 8, 5, 8, Colors.PINK, TurnPhase.MOVE_TOTEM, null);
+    }
+
+    @Test
+    @DisplayName("search() should play a win in one and score it as such")
+    void testFindsWinInOne() {
+        SearchState state = winInOnePosition();
+        AlphaBetaSearch search = new AlphaBetaSearch(state);
+        int move = search.search(4, 1000);
+
+        assertEquals(Symbol.X, MoveCodec.symbol(move));
+        assertEquals(3, MoveCodec.tokenCell(move));
+        assertEquals(AlphaBetaSearch.WIN_SCORE - 1, search.getScore());
+        assertTrue(AlphaBetaSearch.isDecisive(search.getScore()));
+    }
+
+    @Test
+    @DisplayName("search() should leave the position unchanged")
+    void testSearchRestoresState() {
+        SearchState state = new GameModel(6).createSearchState();
+        long key = state.getKey();
+        new AlphaBetaSearch(state).search(3, 1000);
+        assertEquals(key, state.getKey());
+        assertEquals(0, state.getPly());
+    }
+
+    @Test
+    @DisplayName("The strategy should reach depth 4 on 6x6 within a second and report a legal principal variation")
+    void testDepthFourWithinASecond() {
+        GameModel gameModel = new GameModel(6);
+        AlphaBetaMoveStrategy strategy = new AlphaBetaMoveStrategy(4, 1000);
+        int move = strategy.calculatePackedMove(gameModel);
+
+        assertEquals(4, strategy.getLastDepth());
+        int[] pv = strategy.getPrincipalVariation();
+        assertTrue(pv.length > 0);
+        assertEquals(move, pv[0]);
+
+        SearchState state = gameModel.createSearchState();
+        MoveList moves = new MoveList();
+        for (int pvMove : pv) {
+            moves.clear();
+            state.generateMoves(moves);
+            assertTrue(moves.contains(pvMove), MoveCodec.toString(pvMove, 6));
+            state.make(pvMove);
+        }
+        assertTrue(strategy.getSearchReport().startsWith("depth 4"));
+    }
+
+    @Test
+    @DisplayName("setAILevel() should select the alpha-beta bot for level2")
+    void testAILevel() {
+        GameModel gameModel = new GameModel(6);
+        gameModel.setAILevel("level2");
+        ForcedWinMoveStrategy strategy = assertInstanceOf(ForcedWinMoveStrategy.class,
+                gameModel.getPlayer2().getMoveStrategy());
+        assertInstanceOf(AlphaBetaMoveStrategy.class, strategy.getDelegate());
+    }
+}
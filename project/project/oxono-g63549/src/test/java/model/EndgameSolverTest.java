@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class EndgameSolverTest {
+
+    /** Plays random turns that do not win until only a few tokens are left, or returns null. */
+    private static SearchState randomEndgame(int size, int tokensLeft, long seed) {
+        Random random = new Random(seed);
+        SearchState state = new GameModel(size).createSearchState();
+        MoveList moves = new MoveList();
+        while (countTokens(state) > tokensLeft) {
+            moves.clear();
+            state.generateMoves(moves);
+            if (moves.isEmpty()) {
+                return null;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            if (state.make(move)) {
+                return null;
+            }
+        }
+        return new SearchState(state);
+    }
+
+    private static int countTokens(SearchState state) {
+        int tokens = 0;
+        for (Symbol symbol : Symbol.values()) {
+            tokens += state.tokens(Colors.PINK, symbol) + state.tokens(Colors.BLACK, symbol);
+        }
+        return tokens;
+    }
+
+    @Test
+    @DisplayName("solve() should prove a win in one")
+    void testWinInOne() {
+        EndgameSolver solver = new EndgameSolver();
+        SearchState state = AlphaBetaSearchTest.winInOnePosition();
+        int move = solver.solve(state, 10_000);
+
+        assertTrue(solver.isSolved());
+        assertEquals(EndgameSolver.WIN, solver.getOutcome());
+        assertTrue(state.make(move));
+    }
+
+    @Test
+    @DisplayName("solve() should agree with a full-depth alpha-beta search on small endgames")
+    void testAgreesWithFullSearch() {
+        EndgameSolver solver = new EndgameSolver();
+        int checked = 0;
+        for (long seed = 0; checked < 5 && seed < 100; seed++) {
+            SearchState state = randomEndgame(6, 6, seed);
+            if (state == null) {
+                continue;
+            }
+            long key = state.getKey();
+            int move = solver.solve(state, 60_000);
+            assertTrue(solver.isSolved());
+            assertEquals(key, state.getKey());
+
+            AlphaBetaSearch search = new AlphaBetaSearch(state.copy(), null, null);
+            search.search(countTokens(state), AlphaBetaSearch.NO_TIME_LIMIT);
+            int expected = AlphaBetaSearch.isDecisive(search.getScore()) ? Integer.signum(search.getScore()) : EndgameSolver.DRAW;
+            assertEquals(expected, solver.getOutcome(), "seed " + seed);
+
+            if (move == MoveCodec.NO_MOVE) {
+                assertEquals(EndgameSolver.DRAW, solver.getOutcome());
+            } else if (!state.make(move)) {
+                EndgameSolver reply = new EndgameSolver();
+                reply.solve(state, 60_000);
+                assertEquals(-solver.getOutcome(), reply.getOutcome(), "seed " + seed);
+            }
+            checked++;
+        }
+        assertEquals(5, checked);
+    }
+
+    @Test
+    @DisplayName("isEndgame() should apply the thresholds, and an interrupted solve should prove nothing")
+    void testThresholdsAndTimeLimit() {
+        EndgameSolver solver = new EndgameSolver();
+        SearchState opening = new GameModel(8).createSearchState();
+        assertFalse(solver.isEndgame(opening));
+        assertTrue(new EndgameSolver(32, 0).isEndgame(new GameModel(6).createSearchState()));
+        assertFalse(new EndgameSolver(32, 0).isEndgame(opening));
+        assertTrue(new EndgameSolver(43, 0).isEndgame(opening));
+        assertEquals(EndgameSolver.DEFAULT_MAX_TOKENS, solver.getMaxTokens(4));
+        assertEquals(9, solver.getMaxTokens(8));
+        assertEquals(7, solver.getMaxTokens(10));
+
+        assertEquals(MoveCodec.NO_MOVE, solver.solve(opening, 1));
+        assertFalse(solver.isSolved());
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class EvaluatorTest {
+
+    private static Board boardWithTotems(int size) {
+        Board board = new Board(size);
+        board.putPiece(new Position(size - 1, 0), Totem.of(Symbol.X));
+        board.putPiece(new Position(size - 1, size - 1), Totem.of(Symbol.O));
+        return board;
+    }
+
+    private static SearchState stateOf(Board board, Colors sideToMove) {
+        return new SearchState(board, 8, 8, 8, 8, sideToMove, TurnPhase.MOVE_TOTEM, null);
+    }
+
+    @Test
+    @DisplayName("make() and unmake() should keep the evaluation equal to one computed from scratch")
+    void testIncrementalMatchesScratch() {
+        SplittableRandom random = new SplittableRandom(11);
+        MoveList moves = new MoveList();
+        for (int size = 4; size <= 10; size += 3) {
+            for (int game = 0; game < 20; game++) {
+                SearchState state = new GameModel(size).createSearchState();
+                int[] played = new int[64];
+                int plies = 0;
+                while (true) {
+                    moves.clear();
+                    state.generateMoves(moves);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    int move = moves.get(random.nextInt(moves.size()));
+                    played[plies++] = move;
+                    if (state.make(move)) {
+                        break;
+                    }
+                    assertEquals(state.copy().evaluate(), state.evaluate());
+                    assertEquals(new SearchState(state.getBoard(), state.tokens(Colors.PINK, Symbol.X),
+                            state.tokens(Colors.PINK, Symbol.O), state.tokens(Colors.BLACK, Symbol.X),
+                            state.tokens(Colors.BLACK, Symbol.O), state.getSideToMove(),
+                            state.getPhase(), null).evaluate(), state.evaluate());
+                }
+                while (plies > 0) {
+                    state.unmake(played[--plies]);
+                }
+                assertEquals(new GameModel(size).createSearchState().evaluate(), state.evaluate());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Longer and more open runs should score more, and color runs should count for their owner")
+    void testRunScores() {
+        Board two = boardWithTotems(8);
+        two.putPiece(new Position(3, 3), Token.of(Colors.PINK, Symbol.X));
+        two.putPiece(new Position(3, 4), Token.of(Colors.PINK, Symbol.O));
+        Board three = new Board(two);
+        three.putPiece(new Position(3, 5), Token.of(Colors.PINK, Symbol.X));
+        Board edge = boardWithTotems(8);
+        edge.putPiece(new Position(3, 0), Token.of(Colors.PINK, Symbol.X));
+        edge.putPiece(new Position(3, 1), Token.of(Colors.PINK, Symbol.O));
+
+        int twoScore = new Evaluator(two).getColorScore();
+        assertTrue(new Evaluator(three).getColorScore() > twoScore);
+        assertTrue(twoScore > new Evaluator(edge).getColorScore());
+
+        Board blocked = new Board(three);
+        blocked.putPiece(new Position(3, 6), Token.of(Colors.BLACK, Symbol.O));
+        assertTrue(new Evaluator(blocked).getColorScore() < new Evaluator(three).getColorScore());
+
+        SearchState pinkToMove = stateOf(three, Colors.PINK);
+        SearchState blackToMove = stateOf(three, Colors.BLACK);
+        assertTrue(pinkToMove.evaluate() > 0);
+        assertTrue(blackToMove.evaluate() < 0);
+    }
+
+    @Test
+    @DisplayName("Symbol runs should favour the side to move while it still has tokens of that symbol")
+    void testSymbolRunsAndBags() {
+        Board board = boardWithTotems(6);
+        board.putPiece(new Position(2, 1), Token.of(Colors.PINK, Symbol.X));
+        board.putPiece(new Position(2, 2), Token.of(Colors.BLACK, Symbol.X));
+        board.putPiece(new Position(2, 3), Token.of(Colors.PINK, Symbol.X));
+        assertTrue(new Evaluator(board).getSymbolScore(Symbol.X) > 0);
+        assertEquals(0, new Evaluator(board).getSymbolScore(Symbol.O));
+
+        SearchState withX = new SearchState(board, 6, 8, 7, 8, Colors.BLACK, TurnPhase.MOVE_TOTEM, null);
+        SearchState withoutX = new SearchState(board, 6, 8, 0, 8, Colors.BLACK, TurnPhase.MOVE_TOTEM, null);
+        assertTrue(withX.evaluate() > withoutX.evaluate());
+    }
+}
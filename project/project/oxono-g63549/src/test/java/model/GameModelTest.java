@@ -286,6 +286,28 @@ class GameModelTest {
             assertTrue(gameModel.getPlayer2().isAutomated());
         }
 
+        @Test
+        @DisplayName("setAILevel() and startGame() should stop the pondering of the bot they replace")
+        void testSetAILevelReleasesBot() {
+            gameModel.setVerbose(false);
+            gameModel.startGame();
+            gameModel.setAILevel("alphabeta");
+            ForcedWinMoveStrategy bot = (ForcedWinMoveStrategy) gameModel.getPlayer2().getMoveStrategy();
+            AlphaBetaMoveStrategy search = (AlphaBetaMoveStrategy) bot.getDelegate();
+            gameModel.startPondering();
+            assertTrue(search.isPondering());
+
+            gameModel.setAILevel("random");
+            assertFalse(search.isPondering());
+
+            gameModel.setAILevel("alphabeta");
+            bot = (ForcedWinMoveStrategy) gameModel.getPlayer2().getMoveStrategy();
+            search = (AlphaBetaMoveStrategy) bot.getDelegate();
+            gameModel.startPondering();
+            gameModel.startGame();
+            assertFalse(search.isPondering());
+        }
+
         @Test
         @DisplayName("executeAutomaticMove() should work for AI player")
         void testExecuteAutomaticMove() {
@@ -419,6 +441,44 @@ class GameModelTest {
             assertTrue(gameModel.getCurrentPlayer().getBag().countSymbol(Symbol.X) > 0);
         }
 
+        @Test
+        @DisplayName("Undoing a placement should return the placed token to its bag")
+        void testUndoPlacementRestoresToken() {
+            gameModel.startGame();
+            BagPiece bag = gameModel.getPlayer1().getBag();
+            long bagKey = bag.getZobristKey();
+            Position from = gameModel.getTotemPosition(Symbol.X);
+            Position to = new Position(from.x() + 1, from.y());
+            Position token = new Position(to.x() + 1, to.y());
+
+            CompositeMoveCommand command = new CompositeMoveCommand(gameModel, new Move(to, token, Symbol.X));
+            command.execute();
+            assertSame(Token.of(Colors.PINK, Symbol.X), gameModel.getPieceAt(token));
+            assertEquals(7, bag.countSymbol(Symbol.X));
+
+            command.unexecute();
+            assertNull(gameModel.getPieceAt(token));
+            assertEquals(8, bag.countSymbol(Symbol.X));
+            assertEquals(16, bag.size());
+            assertEquals(bagKey, bag.getZobristKey());
+        }
+
+        @Test
+        @DisplayName("A bag should refuse tokens of the other player and totems")
+        void testBagRejectsForeignPieces() {
+            BagPiece bag = new BagPiece(Colors.PINK);
+            bag.removePiece(Symbol.X);
+            long bagKey = bag.getZobristKey();
+
+            assertThrows(IllegalArgumentException.class, () -> bag.addPiece(Token.of(Colors.BLACK, Symbol.X)));
+            assertThrows(IllegalArgumentException.class, () -> bag.addPiece(Totem.of(Symbol.X)));
+            assertEquals(7, bag.countSymbol(Symbol.X));
+            assertEquals(bagKey, bag.getZobristKey());
+
+            bag.addPiece(Token.of(Colors.PINK, Symbol.X));
+            assertEquals(8, bag.countSymbol(Symbol.X));
+        }
+
         @Test
         @DisplayName("restoreTokenToPlayer() should restore token to specific player")
         void testRestoreTokenToPlayer() {
@@ -467,6 +527,35 @@ class GameModelTest {
             assertEquals(Colors.PINK, gameModel.getCurrentPlayerColor());
         }
 
+        @Test
+        @DisplayName("getPositionKey() should change with the phase and the player to move")
+        void testPositionKey() {
+            gameModel.startGame();
+            long start = gameModel.getPositionKey();
+
+            gameModel.advancePhase();
+            assertNotEquals(start, gameModel.getPositionKey());
+            gameModel.advancePhase();
+            assertEquals(start, gameModel.getPositionKey());
+
+            gameModel.endTurn();
+            assertNotEquals(start, gameModel.getPositionKey());
+        }
+
+        @Test
+        @DisplayName("getPositionKey() should tell apart the symbols to place during the token placement phase")
+        void testPositionKeyPlacedSymbol() {
+            gameModel.startGame();
+            gameModel.advancePhase();
+            gameModel.setLastMovedSymbol(Symbol.X);
+            long placeX = gameModel.getPositionKey();
+            assertEquals(placeX, gameModel.createSearchState().getKey());
+
+            gameModel.setLastMovedSymbol(Symbol.O);
+            assertNotEquals(placeX, gameModel.getPositionKey());
+            assertEquals(gameModel.getPositionKey(), gameModel.createSearchState().getKey());
+        }
+
         @Test
         @DisplayName("Token management methods should work")
         void testTokenManagementMethods() {
@@ -509,7 +598,46 @@ class GameModelTest {
             }
         }
     }
-}
 
+    @Nested
+    @DisplayName("Search State Tests")
+    class SearchStateTests {
+
+        @Test
+        @DisplayName("make() and unmake() should not touch the live game")
+        void testMakeUnmakeOnSnapshot() {
+            gameModel.startGame();
+            long liveKey = gameModel.getPositionKey();
+            SearchState state = gameModel.createSearchState();
+            assertEquals(liveKey, state.getKey());
+
+            MoveList moves = new MoveList();
+            state.generateMoves(moves);
+            assertFalse(moves.isEmpty());
+            for (int i = 0; i < moves.size(); i++) {
+                state.make(moves.get(i));
+                assertNotEquals(liveKey, state.getKey());
+                state.unmake(moves.get(i));
+                assertEquals(liveKey, state.getKey());
+            }
+            assertEquals(liveKey, gameModel.getPositionKey());
+        }
 
+        @Test
+        @DisplayName("make() should reach the same position as the live game")
+        void testMakeMatchesGameModel() {
+            gameModel.startGame();
+            SearchState state = gameModel.createSearchState();
+            MoveList moves = new MoveList();
+            state.generateMoves(moves);
+            int move = moves.get(moves.size() / 2);
+
+            state.make(move);
+            new CompositeMoveCommand(gameModel, move).execute();
 
+            assertEquals(gameModel.getPositionKey(), state.getKey());
+            assertEquals(Colors.BLACK, state.getSideToMove());
+            assertEquals(15, state.tokens(Colors.PINK, Symbol.X) + state.tokens(Colors.PINK, Symbol.O));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class GameRulesTest {
+
+    @Nested
+    @DisplayName("Bitboard Tests")
+    class BitboardTests {
+
+        @Test
+        @DisplayName("putPiece() and removePiece() should keep the bitboards in sync")
+        void testBitboardsFollowPieces() {
+            Board board = new Board(10);
+            Position pos = new Position(9, 9);
+            board.putPiece(pos, new Token(Colors.PINK, Symbol.X));
+
+            int cell = board.cellIndex(pos);
+            assertEquals(99, cell);
+            assertTrue(board.isOccupied(cell));
+            assertEquals(1L << (cell - 64), board.colorWord(Colors.PINK, 1));
+            assertEquals(1L << (cell - 64), board.symbolWord(Symbol.X, 1));
+            assertEquals(0L, board.colorWord(Colors.BLACK, 1));
+            assertThrows(IllegalArgumentException.class, () -> board.colorWord(Colors.BLUE, 1));
+
+            board.removePiece(pos);
+            assertFalse(board.isOccupied(cell));
+            assertEquals(0L, board.occupiedWord(1));
+            assertEquals(0L, board.symbolWord(Symbol.X, 1));
+        }
+
+        @Test
+        @DisplayName("Zobrist key should not depend on the order of the moves")
+        void testZobristKey() {
+            Board first = new Board(6);
+            Board second = new Board(6);
+            assertEquals(0L, first.getZobristKey());
+
+            first.putPiece(new Position(1, 1), new Totem(Symbol.X));
+            first.putPiece(new Position(2, 3), new Token(Colors.PINK, Symbol.O));
+            second.putPiece(new Position(2, 3), new Token(Colors.PINK, Symbol.O));
+            second.putPiece(new Position(1, 1), new Totem(Symbol.X));
+            assertEquals(first.getZobristKey(), second.getZobristKey());
+
+            long key = first.getZobristKey();
+            first.putPiece(new Position(2, 4), new Token(Colors.BLACK, Symbol.O));
+            assertNotEquals(key, first.getZobristKey());
+            first.removePiece(new Position(2, 4));
+            assertEquals(key, first.getZobristKey());
+        }
+
+        @Test
+        @DisplayName("findTotemPosition() should locate both totems")
+        void testFindTotem() {
+            Board board = new Board(8);
+            board.putPiece(new Position(7, 6), new Totem(Symbol.O));
+            board.putPiece(new Position(0, 1), new Totem(Symbol.X));
+
+            assertEquals(new Position(7, 6), board.findTotemPosition(new Totem(Symbol.O)));
+            assertEquals(new Position(0, 1), board.findTotemPosition(new Totem(Symbol.X)));
+            assertEquals(62, board.getEmptyCellCount());
+
+            board.removePiece(new Position(7, 6));
+            board.putPiece(new Position(3, 3), new Totem(Symbol.O));
+            assertEquals(27, board.findTotemCell(Symbol.O));
+            assertEquals(62, board.getEmptyCellCount());
+
+            board.removePiece(new Position(0, 1));
+            assertThrows(IllegalStateException.class, () -> board.findTotemCell(Symbol.X));
+            assertEquals(63, board.getEmptyCellCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Win Detection Tests")
+    class WinDetectionTests {
+
+        @Test
+        @DisplayName("checkWin() should detect a horizontal color alignment across both words")
+        void testHorizontalAcrossWords() {
+            Board board = new Board(10);
+            for (int y = 2; y < 6; y++) {
+                board.putPiece(new Position(6, y), new Token(Colors.BLACK, y % 2 == 0 ? Symbol.X : Symbol.O));
+            }
+            assertTrue(GameRules.checkWin(board));
+        }
+
+        @Test
+        @DisplayName("checkWin() should detect a vertical symbol alignment")
+        void testVerticalSymbol() {
+            Board board = new Board(7);
+            for (int x = 3; x < 7; x++) {
+                board.putPiece(new Position(x, 6), new Token(x % 2 == 0 ? Colors.PINK : Colors.BLACK, Symbol.O));
+            }
+            assertTrue(GameRules.checkWin(board));
+        }
+
+        @Test
+        @DisplayName("checkWin() should not join the end of a row with the next one")
+        void testNoWrapAround() {
+            Board board = new Board(6);
+            board.putPiece(new Position(0, 4), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(0, 5), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(1, 0), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(1, 1), new Token(Colors.PINK, Symbol.X));
+            assertFalse(GameRules.checkWin(board));
+        }
+
+        @Test
+        @DisplayName("checkWinAt() should agree with checkWin() on every board size")
+        void testLastMoveMatchesFullScan() {
+            Random random = new Random(42);
+            for (int size = 4; size <= 10; size++) {
+                for (int game = 0; game < 200; game++) {
+                    Board board = new Board(size);
+                    board.putPiece(random.nextInt(size * size), new Totem(Symbol.X));
+                    boolean won = false;
+                    while (!won && GameRules.isMovePossible(board)) {
+                        int cell = random.nextInt(size * size);
+                        if (board.isOccupied(cell)) continue;
+                        Colors colors = random.nextBoolean() ? Colors.PINK : Colors.BLACK;
+                        Symbol symbol = random.nextBoolean() ? Symbol.X : Symbol.O;
+                        board.putPiece(cell, new Token(colors, symbol));
+
+                        won = GameRules.checkWin(board);
+                        assertEquals(won, GameRules.checkWinAt(board, cell), "size " + size + ", cell " + cell);
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("checkWin() should ignore totems in a line")
+        void testTotemBreaksLine() {
+            Board board = new Board(6);
+            board.putPiece(new Position(2, 0), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(2, 1), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(2, 2), new Totem(Symbol.X));
+            board.putPiece(new Position(2, 3), new Token(Colors.PINK, Symbol.X));
+            assertFalse(GameRules.checkWin(board));
+        }
+    }
+
+    @Nested
+    @DisplayName("Totem Movement Tests")
+    class TotemMovementTests {
+
+        @Test
+        @DisplayName("isEnclaved() should only be true when every neighbour is occupied")
+        void testIsEnclaved() {
+            Board board = new Board(6);
+            Position corner = new Position(0, 0);
+            board.putPiece(corner, new Totem(Symbol.X));
+            board.putPiece(new Position(0, 1), new Token(Colors.PINK, Symbol.O));
+            assertFalse(GameRules.isEnclaved(board, corner));
+
+            board.putPiece(new Position(1, 0), new Token(Colors.BLACK, Symbol.O));
+            assertTrue(GameRules.isEnclaved(board, corner));
+        }
+
+        @Test
+        @DisplayName("getValidTotemPositions() should jump over own symbol when enclaved")
+        void testEnclavedJump() {
+            Board board = new Board(6);
+            Totem totem = new Totem(Symbol.X);
+            board.putPiece(new Position(0, 0), totem);
+            board.putPiece(new Position(0, 1), new Token(Colors.PINK, Symbol.X));
+            board.putPiece(new Position(0, 2), new Token(Colors.BLACK, Symbol.X));
+            board.putPiece(new Position(1, 0), new Token(Colors.BLACK, Symbol.O));
+
+            List<Position> targets = GameRules.getValidTotemPositions(board, totem);
+            assertEquals(List.of(new Position(0, 3)), targets);
+        }
+
+        @Test
+        @DisplayName("getValidTotemPositions() should stop slides at the first piece")
+        void testSlide() {
+            Board board = new Board(4);
+            Totem totem = new Totem(Symbol.O);
+            board.putPiece(new Position(1, 1), totem);
+            board.putPiece(new Position(1, 3), new Token(Colors.PINK, Symbol.X));
+
+            List<Position> targets = GameRules.getValidTotemPositions(board, totem);
+            assertEquals(5, targets.size());
+            assertTrue(targets.contains(new Position(1, 2)));
+            assertFalse(targets.contains(new Position(1, 3)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Turn Generation Tests")
+    class TurnGenerationTests {
+
+        @Test
+        @DisplayName("MoveCodec should round-trip a Move")
+        void testCodecRoundTrip() {
+            Move move = new Move(new Position(9, 8), new Position(9, 9), Symbol.O);
+            int packed = MoveCodec.encode(move, 10);
+
+            assertEquals(Symbol.O, MoveCodec.symbol(packed));
+            assertEquals(98, MoveCodec.totemCell(packed));
+            assertEquals(99, MoveCodec.tokenCell(packed));
+            assertTrue(packed < MoveCodec.MOVE_SPACE);
+
+            Move decoded = MoveCodec.decode(packed, 10);
+            assertEquals(move.getTotemTarget(), decoded.getTotemTarget());
+            assertEquals(move.getTokenTarget(), decoded.getTokenTarget());
+            assertEquals(move.getTokenSymbol(), decoded.getTokenSymbol());
+
+            Move withoutToken = MoveCodec.decode(MoveCodec.encode(new Move(new Position(0, 0), null, Symbol.X), 4), 4);
+            assertNull(withoutToken.getTokenTarget());
+        }
+
+        @Test
+        @DisplayName("generateTurns() should match the Position-based rules")
+        void testGenerateTurnsMatchesRules() {
+            Random random = new Random(7);
+            MoveList moves = new MoveList();
+            for (int size = 4; size <= 10; size++) {
+                for (int round = 0; round < 50; round++) {
+                    Board board = new Board(size);
+                    board.putPiece(random.nextInt(size * size), new Totem(Symbol.X));
+                    int oCell;
+                    do {
+                        oCell = random.nextInt(size * size);
+                    } while (board.isOccupied(oCell));
+                    board.putPiece(oCell, new Totem(Symbol.O));
+                    int tokens = random.nextInt(size * size - 2);
+                    while (tokens-- > 0) {
+                        int cell = random.nextInt(size * size);
+                        if (!board.isOccupied(cell)) {
+                            board.putPiece(cell, new Token(random.nextBoolean() ? Colors.PINK : Colors.BLACK,
+                                    random.nextBoolean() ? Symbol.X : Symbol.O));
+                        }
+                    }
+
+                    moves.clear();
+                    GameRules.generateTurns(board, 1, 1, moves);
+                    Set<Integer> generated = new HashSet<>();
+                    for (int i = 0; i < moves.size(); i++) {
+                        generated.add(moves.get(i));
+                    }
+                    assertEquals(moves.size(), generated.size());
+                    assertEquals(enumerateTurns(board), generated, "size " + size);
+                }
+            }
+        }
+
+        private Set<Integer> enumerateTurns(Board board) {
+            Set<Integer> turns = new HashSet<>();
+            for (Symbol symbol : Symbol.values()) {
+                Totem totem = new Totem(symbol);
+                Position start = board.findTotemPosition(totem);
+                for (Position target : GameRules.getValidTotemPositions(board, totem)) {
+                    Piece piece = board.getPiece(start);
+                    board.removePiece(start);
+                    board.putPiece(target, piece);
+                    for (Position token : GameRules.getValidTokenPositionsForPosition(board, target)) {
+                        turns.add(MoveCodec.encode(new Move(target, token, symbol), board.getSize()));
+                    }
+                    board.removePiece(target);
+                    board.putPiece(start, piece);
+                }
+            }
+            return turns;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time the Lazy SMP alpha-beta search needs to complete a fixed depth,
+ * against the number of threads. The shared table is emptied before every search.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LazySmp
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LazySmpBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"5"})
+    private int depth;
+
+    private TranspositionTable table;
+    private LazySmpSearch search;
+    private SearchState state;
+
+    @Setup
+    public void setUp() {
+        table = new TranspositionTable(64);
+        search = new LazySmpSearch(threads, table);
+        state = new GameModel(8).createSearchState();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+        table.newSearch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public int timeToDepth() {
+        return search.search(state, depth, AlphaBetaSearch.NO_TIME_LIMIT);
+    }
+}
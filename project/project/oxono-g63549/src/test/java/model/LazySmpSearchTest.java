@@ -0,0 +1,58 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class LazySmpSearchTest {
+
+    @Test
+    @DisplayName("Helpers should not change the result of a fixed-depth search")
+    void testSameScoreAsSingleThread() {
+        SearchState state = new GameModel(6).createSearchState();
+        AlphaBetaSearch single = new AlphaBetaSearch(state, new TranspositionTable(4));
+        single.search(4, AlphaBetaSearch.NO_TIME_LIMIT);
+
+        try (LazySmpSearch search = new LazySmpSearch(4, new TranspositionTable(4))) {
+            int move = search.search(state, 4, AlphaBetaSearch.NO_TIME_LIMIT);
+            assertEquals(4, search.getMainSearch().getCompletedDepth());
+            assertEquals(single.getScore(), search.getMainSearch().getScore());
+            assertEquals(move, search.getMainSearch().getPrincipalVariation()[0]);
+            assertTrue(search.getNodes() >= search.getMainSearch().getNodes());
+            assertEquals(0, state.getPly());
+        }
+    }
+
+    @Test
+    @DisplayName("The parallel search should play a win in one")
+    void testFindsWinInOne() {
+        try (LazySmpSearch search = new LazySmpSearch(3, new TranspositionTable(1))) {
+            int move = search.search(AlphaBetaSearchTest.winInOnePosition(), 6, 10_000);
+            assertEquals(3, MoveCodec.tokenCell(move));
+            assertEquals(AlphaBetaSearch.WIN_SCORE - 1, search.getMainSearch().getScore());
+        }
+    }
+
+    @Test
+    @DisplayName("stop() should end a search without time limit and keep the last completed iteration")
+    void testStop() throws InterruptedException {
+        try (LazySmpSearch search = new LazySmpSearch(2, new TranspositionTable(4))) {
+            Thread stopper = new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                search.stop();
+            });
+            stopper.start();
+            int move = search.search(new GameModel(10).createSearchState(), AlphaBetaSearch.MAX_DEPTH,
+                    AlphaBetaSearch.NO_TIME_LIMIT);
+            stopper.join();
+
+            assertNotEquals(MoveCodec.NO_MOVE, move);
+            assertTrue(search.getMainSearch().getCompletedDepth() < AlphaBetaSearch.MAX_DEPTH);
+        }
+    }
+}
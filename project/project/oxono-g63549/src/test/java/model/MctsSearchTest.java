@@ -0,0 +1,79 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class MctsSearchTest {
+
+    private static MctsSearch seeded(int capacity) {
+        return new MctsSearch(capacity, MctsSearch.DEFAULT_EXPLORATION, new SplittableRandom(7));
+    }
+
+    @Test
+    @DisplayName("search() should play a win in one")
+    void testFindsWinInOne() {
+        MctsSearch search = seeded(1 << 16);
+        int move = search.search(AlphaBetaSearchTest.winInOnePosition(), 2_000, 10_000);
+
+        assertEquals(Symbol.X, MoveCodec.symbol(move));
+        assertEquals(3, MoveCodec.tokenCell(move));
+        assertEquals(1.0, search.getBestMoveScore());
+    }
+
+    @Test
+    @DisplayName("search() should run the requested playouts and leave the position unchanged")
+    void testPlayoutBudget() {
+        SearchState state = new GameModel(8).createSearchState();
+        long key = state.getKey();
+        MctsSearch search = seeded(1 << 16);
+        int move = search.search(state, 500, 60_000);
+
+        assertEquals(500, search.getPlayouts());
+        assertEquals(key, state.getKey());
+        assertEquals(0, state.getPly());
+
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        assertTrue(moves.contains(move));
+
+        int visits = 0;
+        for (int[] child : search.getRootStatistics()) {
+            visits += child[1];
+        }
+        assertEquals(500, visits);
+    }
+
+    @Test
+    @DisplayName("A full tree should keep searching with playouts only")
+    void testTreeCapacity() {
+        SearchState state = new GameModel(10).createSearchState();
+        MctsSearch search = seeded(200);
+        int move = search.search(state, 1_000, 60_000);
+
+        assertEquals(1_000, search.getPlayouts());
+        assertTrue(search.getNodeCount() <= 200);
+        assertNotEquals(MoveCodec.NO_MOVE, move);
+    }
+
+    @Test
+    @DisplayName("The same seed should give the same move")
+    void testDeterministic() {
+        SearchState state = new GameModel(6).createSearchState();
+        assertEquals(seeded(1 << 16).search(state, 300, 60_000), seeded(1 << 16).search(state, 300, 60_000));
+    }
+
+    @Test
+    @DisplayName("setAILevel() should select the MCTS bot for level3")
+    void testAILevel() {
+        GameModel gameModel = new GameModel(6);
+        gameModel.setAILevel("level3");
+        ForcedWinMoveStrategy strategy = assertInstanceOf(ForcedWinMoveStrategy.class,
+                gameModel.getPlayer2().getMoveStrategy());
+        assertInstanceOf(MctsMoveStrategy.class, strategy.getDelegate());
+    }
+}
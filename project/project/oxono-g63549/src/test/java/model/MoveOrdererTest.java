@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class MoveOrdererTest {
+
+    private static int[] ordered(MoveOrderer orderer, SearchState state, MoveList moves) {
+        orderer.score(state, moves, 0, MoveCodec.NO_MOVE, MoveCodec.NO_MOVE);
+        int[] result = new int[moves.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = orderer.pick(moves, 0, i);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("Winning placements should come first, then placements blocking an opponent win")
+    void testWinsThenBlocks() {
+        SearchState state = AlphaBetaSearchTest.winInOnePosition();
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        int[] order = ordered(new MoveOrderer(), state, moves);
+
+        assertEquals(3, MoveCodec.tokenCell(order[0]));
+        assertEquals(Symbol.X, MoveCodec.symbol(order[0]));
+        assertTrue(state.make(order[0]));
+        state.unmake(order[0]);
+
+        Board board = new Board(state.getBoard());
+        board.removePiece(new Position(0, 0));
+        board.putPiece(new Position(0, 0), Token.of(Colors.BLACK, Symbol.O));
+        SearchState blocking = new SearchState(board, 8, 8, 5, 7, Colors.PINK, TurnPhase.MOVE_TOTEM, null);
+        moves.clear();
+        blocking.generateMoves(moves);
+        order = ordered(new MoveOrderer(), blocking, moves);
+        assertEquals(3, MoveCodec.tokenCell(order[0]));
+        assertFalse(blocking.make(order[0]));
+    }
+
+    @Test
+    @DisplayName("A cutoff should make a move a killer of its ply and raise its history")
+    void testKillersAndHistory() {
+        SearchState state = new GameModel(6).createSearchState();
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        int first = moves.get(0);
+        int last = moves.get(moves.size() - 1);
+
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.recordCutoff(first, 0, 2);
+        orderer.recordCutoff(last, 0, 3);
+        assertEquals(last, orderer.getKiller(0, 0));
+        assertEquals(first, orderer.getKiller(0, 1));
+        assertEquals(9, orderer.getHistory(last));
+
+        int[] order = ordered(orderer, state, moves);
+        assertEquals(last, order[0]);
+        assertEquals(first, order[1]);
+
+        orderer.clear();
+        assertEquals(MoveCodec.NO_MOVE, orderer.getKiller(0, 0));
+        assertEquals(0, orderer.getHistory(last));
+    }
+
+    @Test
+    @DisplayName("Ordering should keep the score of a fixed-depth search and visit far fewer nodes")
+    void testNodeReduction() {
+        SearchState state = new GameModel(6).createSearchState();
+        AlphaBetaSearch plain = new AlphaBetaSearch(state, null, null);
+        plain.search(4, 60_000);
+        AlphaBetaSearch sorted = new AlphaBetaSearch(state, null);
+        sorted.search(4, 60_000);
+
+        assertEquals(plain.getScore(), sorted.getScore());
+        assertTrue(sorted.getNodes() * 2 < plain.getNodes(), sorted.getNodes() + " vs " + plain.getNodes());
+    }
+}
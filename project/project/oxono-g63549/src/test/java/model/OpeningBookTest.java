@@ -0,0 +1,94 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class OpeningBookTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("A written book should map back with its statistics and pick the best scoring move")
+    void testWriteAndProbe() throws IOException {
+        SearchState start = new GameModel(6).createSearchState();
+        MoveList moves = new MoveList();
+        start.generateMoves(moves);
+        long key = start.getKey();
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(6);
+        for (int game = 0; game < 10; game++) {
+            builder.add(key, moves.get(0), 2);
+            builder.add(key, moves.get(1), game < 6 ? 1 : 0);
+        }
+        builder.add(key, moves.get(2), 2);
+        builder.add(key ^ 1, moves.get(3), 2);
+        Path file = directory.resolve("book-6.bin");
+        builder.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(6, book.getBoardSize());
+        assertEquals(4, book.getEntryCount());
+        assertEquals(3, book.countMoves(key));
+        assertEquals(moves.get(0), book.probe(key));
+        assertEquals(MoveCodec.NO_MOVE, book.probe(key ^ 1));
+        assertEquals(MoveCodec.NO_MOVE, book.probe(key + 12345));
+        assertEquals(4 * Integer.BYTES + 4 * (Long.BYTES + 3 * Integer.BYTES), Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Self-play should fill the book with legal moves, found in every symmetric image of the position")
+    void testSelfPlay() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(6);
+        builder.playGames(20, 2, 1, 0.0, new Random(1));
+        Path file = directory.resolve("book-6.bin");
+        builder.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        SearchState start = new GameModel(6).createSearchState();
+        int move = book.probe(start);
+        MoveList moves = new MoveList();
+        start.generateMoves(moves);
+        assertTrue(moves.contains(move));
+        // The start position is symmetric itself, so an image may get another move
+        // leading to an equivalent position.
+        start.make(move);
+        long expected = Symmetry.canonicalize(start).key();
+        start.unmake(move);
+        for (int transform = 0; transform < Symmetry.TRANSFORMS; transform++) {
+            SearchState image = Symmetry.transform(start, transform);
+            image.make(book.probe(image));
+            assertEquals(expected, Symmetry.canonicalize(image).key());
+        }
+
+        ForcedWinMoveStrategy strategy = new ForcedWinMoveStrategy(new RandomMoveStrategy());
+        strategy.setOpeningBook(book);
+        assertEquals(move, strategy.calculatePackedMove(new GameModel(6)));
+        assertTrue(strategy.isLastBookMove());
+        strategy.setOpeningBook(OpeningBook.empty(6));
+        strategy.calculatePackedMove(new GameModel(6));
+        assertFalse(strategy.isLastBookMove());
+    }
+
+    @Test
+    @DisplayName("open() should refuse a file that is not a book, a perfect play table included")
+    void testRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("book-6.bin");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+
+        Path table = directory.resolve("perfect-6.bin");
+        SortedTable.write(table, PerfectPlayTable.FORMAT.allocate(6, 0));
+        assertTrue(PerfectPlayTable.open(table).isEmpty());
+        assertThrows(IOException.class, () -> OpeningBook.open(table));
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parallel MCTS throughput, in playouts per second, against the number of workers.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ParallelMcts
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMctsBenchmark {
+
+    private static final int PLAYOUTS = 20_000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    @Param({"ROOT", "TREE"})
+    private ParallelMctsSearch.Mode mode;
+
+    private ParallelMctsSearch search;
+    private SearchState state;
+
+    @Setup
+    public void setUp() {
+        search = new ParallelMctsSearch(mode, threads, 1 << 20, MctsSearch.DEFAULT_EXPLORATION, 42);
+        state = new GameModel(8).createSearchState();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PLAYOUTS)
+    public int playouts() {
+        return search.search(state, PLAYOUTS, 3_600_000);
+    }
+}
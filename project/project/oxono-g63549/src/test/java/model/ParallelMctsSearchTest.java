@@ -0,0 +1,55 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ParallelMctsSearchTest {
+
+    @Test
+    @DisplayName("search() should play a win in one")
+    void testFindsWinInOne() {
+        for (ParallelMctsSearch.Mode mode : ParallelMctsSearch.Mode.values()) {
+            try (ParallelMctsSearch search = new ParallelMctsSearch(mode, 4, 1 << 16, MctsSearch.DEFAULT_EXPLORATION, 1)) {
+                int move = search.search(AlphaBetaSearchTest.winInOnePosition(), 4_000, 10_000);
+                assertEquals(Symbol.X, MoveCodec.symbol(move));
+                assertEquals(3, MoveCodec.tokenCell(move));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("search() should share the playout budget and leave the position unchanged")
+    void testPlayoutBudget() {
+        for (ParallelMctsSearch.Mode mode : ParallelMctsSearch.Mode.values()) {
+            SearchState state = new GameModel(8).createSearchState();
+            long key = state.getKey();
+            try (ParallelMctsSearch search = new ParallelMctsSearch(mode, 3, 1 << 16, MctsSearch.DEFAULT_EXPLORATION, 1)) {
+                int move = search.search(state, 1_000, 60_000);
+
+                assertEquals(1_000, search.getPlayouts());
+                assertTrue(search.getNodeCount() > 1);
+                assertEquals(key, state.getKey());
+
+                MoveList moves = new MoveList();
+                state.generateMoves(moves);
+                assertTrue(moves.contains(move));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A full shared tree should keep searching with playouts only")
+    void testTreeCapacity() {
+        for (ParallelMctsSearch.Mode mode : ParallelMctsSearch.Mode.values()) {
+            try (ParallelMctsSearch search = new ParallelMctsSearch(mode, 2, 300, MctsSearch.DEFAULT_EXPLORATION, 1)) {
+                int move = search.search(new GameModel(10).createSearchState(), 500, 60_000);
+                assertEquals(500, search.getPlayouts());
+                assertTrue(search.getNodeCount() <= 300);
+                assertNotEquals(MoveCodec.NO_MOVE, move);
+            }
+        }
+    }
+}
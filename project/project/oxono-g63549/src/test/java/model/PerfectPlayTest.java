@@ -0,0 +1,118 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PerfectPlayTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("The 4x4 start position should be a draw, answered from the table in every symmetric image")
+    void testStartPositionTable() throws IOException, InterruptedException {
+        PerfectPlaySolver solver = new PerfectPlaySolver(4, 0);
+        solver.solve(1);
+        assertEquals(1, solver.getPositionCount());
+        assertEquals(EndgameSolver.DRAW, solver.getStartOutcome());
+        Path file = directory.resolve("perfect-4.bin");
+        solver.write(file);
+
+        PerfectPlayTable table = PerfectPlayTable.open(file);
+        SearchState start = new GameModel(4).createSearchState();
+        for (int transform = 0; transform < Symmetry.TRANSFORMS; transform++) {
+            SearchState image = Symmetry.transform(start, transform);
+            int entry = table.probe(image);
+            assertEquals(EndgameSolver.DRAW, PerfectPlayTable.outcome(entry));
+            MoveList moves = new MoveList();
+            image.generateMoves(moves);
+            assertTrue(moves.contains(PerfectPlayTable.move(entry)));
+        }
+        assertEquals(PerfectPlayTable.MISS, table.probe(new GameModel(5).createSearchState()));
+
+        PerfectMoveStrategy strategy = new PerfectMoveStrategy(new RandomMoveStrategy());
+        strategy.setTable(table);
+        GameModel gameModel = new GameModel(4);
+        int move = strategy.calculatePackedMove(gameModel);
+        assertTrue(strategy.isLastTableHit());
+
+        // The move keeps the draw: the opponent cannot win after it.
+        start.make(move);
+        EndgameSolver reply = new EndgameSolver(0, 0);
+        reply.solve(start, 60_000);
+        assertEquals(EndgameSolver.DRAW, reply.getOutcome());
+    }
+
+    @Test
+    @DisplayName("Past the table, the perfect bot should solve 4x4 positions and hand larger boards to its fallback")
+    void testSolvesPastTheTable() {
+        Random random = new Random(5);
+        GameModel gameModel = new GameModel(4);
+        SearchState state = gameModel.createSearchState();
+        MoveList moves = new MoveList();
+        for (int turn = 0; turn < 6; turn++) {
+            moves.clear();
+            state.generateMoves(moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            if (state.make(move)) {
+                state.unmake(move);
+                continue;
+            }
+            state.unmake(move);
+            new CompositeMoveCommand(gameModel, move).execute();
+            state = gameModel.createSearchState();
+        }
+
+        PerfectMoveStrategy strategy = new PerfectMoveStrategy(new RandomMoveStrategy());
+        strategy.setTable(PerfectPlayTable.empty(4));
+        int move = strategy.calculatePackedMove(gameModel);
+        assertTrue(strategy.isLastSolved());
+        assertFalse(strategy.isLastTableHit());
+
+        EndgameSolver check = new EndgameSolver(0, 0);
+        check.solve(gameModel.createSearchState(), 60_000);
+        assertEquals(check.getOutcome(), strategy.getLastOutcome());
+        moves.clear();
+        state.generateMoves(moves);
+        assertTrue(moves.contains(move));
+
+        strategy.setTable(null);
+        strategy.calculatePackedMove(new GameModel(6));
+        assertFalse(strategy.isLastSolved());
+    }
+
+    @Test
+    @DisplayName("The level 4 bot should answer its first two 4x4 moves from the table, before any other search")
+    void testLevel4AnswersFromTable() {
+        GameModel gameModel = new GameModel(4);
+        gameModel.setVerbose(false);
+        gameModel.setAILevel("level4");
+        ForcedWinMoveStrategy bot = (ForcedWinMoveStrategy) gameModel.getPlayer2().getMoveStrategy();
+        PerfectMoveStrategy perfect = (PerfectMoveStrategy) bot.getDelegate();
+        Random random = new Random(3);
+        MoveList moves = new MoveList();
+
+        for (int turn = 0; turn < 2; turn++) {
+            moves.clear();
+            gameModel.createSearchState().generateMoves(moves);
+            new CompositeMoveCommand(gameModel, moves.get(random.nextInt(moves.size()))).execute();
+
+            int move = gameModel.getTimeControl().play(bot, gameModel);
+            assertTrue(perfect.isLastTableHit(), "bot move " + (turn + 1));
+            assertFalse(bot.isLastSolved());
+            assertEquals(0, bot.getThreatSearch().getNodes());
+            moves.clear();
+            gameModel.createSearchState().generateMoves(moves);
+            assertTrue(moves.contains(move));
+            new CompositeMoveCommand(gameModel, move).execute();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PerftTest {
+
+    @Test
+    @DisplayName("Counts up to depth 3 should match the reference for every board size")
+    void testReferenceCountsShallow() {
+        for (int size = 4; size <= 10; size++) {
+            Perft perft = Perft.fromStart(size, 3);
+            for (int depth = 1; depth <= 3; depth++) {
+                assertEquals(Perft.REFERENCE[size - 4][depth - 1], perft.count(depth),
+                        "size " + size + ", depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Counts at depth 4 should match the reference on small boards")
+    void testReferenceCountsDepthFour() {
+        for (int size = 4; size <= 6; size++) {
+            assertEquals(Perft.REFERENCE[size - 4][3], Perft.fromStart(size, 4).count(4), "size " + size);
+        }
+    }
+
+    @Test
+    @DisplayName("count() should leave the position unchanged")
+    void testCountRestoresState() {
+        SearchState state = new GameModel(6).createSearchState();
+        long key = state.getKey();
+        new Perft(state, 3).count(3);
+        assertEquals(key, state.getKey());
+        assertEquals(0, state.getPly());
+    }
+
+    @Test
+    @DisplayName("divide() should add up to the total count")
+    void testDivideMatchesCount() {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            assertEquals(Perft.REFERENCE[1][2], Perft.fromStart(5, 3).divide(3));
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class PonderingTest {
+
+    /**
+     * Waits until the background search has completed a depth, for at most a minute.
+     */
+    private static void awaitPonderDepth(AlphaBetaMoveStrategy strategy, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (strategy.getPonderDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(strategy.getPonderDepth() >= depth, "pondered to depth " + strategy.getPonderDepth());
+    }
+
+    @Test
+    @DisplayName("A bot that pondered the move actually played should answer at once")
+    void testPonderHit() throws InterruptedException {
+        GameModel gameModel = new GameModel(6);
+        try (AlphaBetaMoveStrategy strategy = new AlphaBetaMoveStrategy(3, 5000)) {
+            strategy.ponder(gameModel);
+            awaitPonderDepth(strategy, 3);
+            int expected = strategy.getExpectedMove();
+            assertNotEquals(MoveCodec.NO_MOVE, expected);
+
+            new CompositeMoveCommand(gameModel, expected).execute();
+            int move = strategy.calculatePackedMove(gameModel);
+
+            assertTrue(strategy.isLastPonderHit());
+            assertEquals(0, strategy.getLastNodes());
+            assertTrue(strategy.getSearchReport().startsWith("ponder hit"));
+            MoveList moves = new MoveList();
+            gameModel.createSearchState().generateMoves(moves);
+            assertTrue(moves.contains(move));
+        }
+    }
+
+    @Test
+    @DisplayName("cancelPondering() should drop the prepared reply")
+    void testCancelPondering() throws InterruptedException {
+        GameModel gameModel = new GameModel(6);
+        try (AlphaBetaMoveStrategy strategy = new AlphaBetaMoveStrategy(3, 5000)) {
+            strategy.ponder(gameModel);
+            awaitPonderDepth(strategy, 3);
+            int expected = strategy.getExpectedMove();
+            strategy.cancelPondering();
+            assertEquals(MoveCodec.NO_MOVE, strategy.getExpectedMove());
+
+            new CompositeMoveCommand(gameModel, expected).execute();
+            strategy.calculatePackedMove(gameModel);
+            assertFalse(strategy.isLastPonderHit());
+            assertEquals(3, strategy.getLastDepth());
+        }
+    }
+
+    @Test
+    @DisplayName("A bot wrapped for forced wins should stop pondering first and play a ponder hit at once")
+    void testPonderHitThroughWrapper() throws InterruptedException {
+        GameModel gameModel = new GameModel(6);
+        AlphaBetaMoveStrategy delegate = new AlphaBetaMoveStrategy(3, 5000);
+        try (ForcedWinMoveStrategy strategy = new ForcedWinMoveStrategy(delegate)) {
+            strategy.setOpeningBook(OpeningBook.empty(6));
+            strategy.ponder(gameModel);
+            awaitPonderDepth(delegate, 3);
+            int expected = delegate.getExpectedMove();
+
+            new CompositeMoveCommand(gameModel, expected).execute();
+            strategy.stopPondering();
+            assertEquals(MoveCodec.NO_MOVE, delegate.getExpectedMove());
+            assertTrue(strategy.isPonderHit(gameModel));
+
+            strategy.calculatePackedMove(gameModel, 5000);
+            assertTrue(delegate.isLastPonderHit());
+            assertEquals(0, strategy.getThreatSearch().getNodes());
+        }
+    }
+
+    /**
+     * Returns the first move of the side to move that does, or does not, complete an alignment,
+     * or {@link MoveCodec#NO_MOVE} if there is none.
+     */
+    private static int firstMove(GameModel gameModel, boolean winning) {
+        SearchState state = gameModel.createSearchState();
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (state.copy().make(moves.get(i)) == winning) {
+                return moves.get(i);
+            }
+        }
+        return MoveCodec.NO_MOVE;
+    }
+
+    @Test
+    @DisplayName("A winning move of the human player should stop the bot's pondering")
+    void testGameOverCancelsPondering() {
+        GameModel gameModel = new GameModel(6);
+        gameModel.setVerbose(false);
+        gameModel.setAILevel("alphabeta");
+        AlphaBetaMoveStrategy search =
+                (AlphaBetaMoveStrategy) ((ForcedWinMoveStrategy) gameModel.getPlayer2().getMoveStrategy()).getDelegate();
+        try {
+            // The bot never takes a win, so the human eventually finds one.
+            while (!gameModel.isGameOver()) {
+                int move;
+                if (gameModel.isCurrentPlayerHuman()) {
+                    gameModel.startPondering();
+                    assertTrue(search.isPondering());
+                    move = firstMove(gameModel, true);
+                    if (move == MoveCodec.NO_MOVE) {
+                        move = firstMove(gameModel, false);
+                    }
+                } else {
+                    move = firstMove(gameModel, false);
+                }
+                new CompositeMoveCommand(gameModel, move).execute();
+            }
+            assertSame(gameModel.getPlayer1(), gameModel.getWinner());
+            assertFalse(search.isPondering());
+        } finally {
+            gameModel.cancelPondering();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SymmetryTest {
+
+    /** Plays a few random turns that do not win from the start position. */
+    private static SearchState randomPosition(int size, int turns, long seed) {
+        Random random = new Random(seed);
+        SearchState state = new GameModel(size).createSearchState();
+        MoveList moves = new MoveList();
+        for (int turn = 0; turn < turns; turn++) {
+            moves.clear();
+            state.generateMoves(moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            if (state.make(move)) {
+                state.unmake(move);
+            }
+        }
+        return new SearchState(state);
+    }
+
+    @Test
+    @DisplayName("key() should match the key of the transformed position, and the identity the usual key")
+    void testKeys() {
+        for (int size = 4; size <= 10; size++) {
+            SearchState state = randomPosition(size, 9, size);
+            assertEquals(state.getKey(), Symmetry.key(state, Symmetry.IDENTITY));
+            for (int transform = 0; transform < Symmetry.TRANSFORMS; transform++) {
+                SearchState image = Symmetry.transform(state, transform);
+                assertEquals(image.getKey(), Symmetry.key(state, transform), "size " + size + " transform " + transform);
+                SearchState back = Symmetry.transform(image, Symmetry.inverse(transform));
+                assertEquals(state.getKey(), back.getKey());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Every transform should map the legal moves and the wins of a position onto those of its image")
+    void testMovesAreSymmetric() {
+        for (long seed = 0; seed < 10; seed++) {
+            int size = 5 + (int) (seed % 4);
+            SearchState state = randomPosition(size, 12, seed);
+            MoveList moves = new MoveList();
+            state.generateMoves(moves);
+            for (int transform = 0; transform < Symmetry.TRANSFORMS; transform++) {
+                SearchState image = Symmetry.transform(state, transform);
+                MoveList imageMoves = new MoveList();
+                image.generateMoves(imageMoves);
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    int mapped = Symmetry.mapMove(transform, move, size);
+                    expected.add(mapped);
+                    boolean won = state.make(move);
+                    assertEquals(won, image.make(mapped));
+                    assertEquals(Symmetry.key(state, transform), image.getKey());
+                    image.unmake(mapped);
+                    state.unmake(move);
+                }
+                Set<Integer> actual = new HashSet<>();
+                for (int i = 0; i < imageMoves.size(); i++) {
+                    actual.add(imageMoves.get(i));
+                }
+                assertEquals(expected, actual, "seed " + seed + " transform " + transform);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("canonicalize() should give the same key to all 16 images of a position")
+    void testCanonicalForm() {
+        SearchState state = randomPosition(6, 10, 42);
+        Symmetry.Canonical canonical = Symmetry.canonicalize(state);
+        assertEquals(Symmetry.key(state, canonical.transform()), canonical.key());
+
+        Set<Long> keys = new HashSet<>();
+        for (int transform = 0; transform < Symmetry.TRANSFORMS; transform++) {
+            SearchState image = Symmetry.transform(state, transform);
+            keys.add(image.getKey());
+            assertEquals(canonical.key(), Symmetry.canonicalize(image).key());
+        }
+        assertEquals(Symmetry.TRANSFORMS, keys.size());
+
+        int move = Symmetry.mapMove(canonical.transform(), randomMove(state), 6);
+        int back = Symmetry.mapMove(Symmetry.inverse(canonical.transform()), move, 6);
+        assertEquals(randomMove(state), back);
+    }
+
+    private static int randomMove(SearchState state) {
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        return moves.get(moves.size() / 2);
+    }
+}
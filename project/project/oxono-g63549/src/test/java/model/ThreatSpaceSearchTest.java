@@ -0,0 +1,80 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class ThreatSpaceSearchTest {
+
+    /** Pink to move on 6x6, one turn away from a threat black cannot answer. */
+    private static GameModel doubleThreatGame() {
+        GameModel gameModel = new GameModel(6);
+        Board board = gameModel.getBoard();
+        board.removePiece(new Position(2, 2));
+        board.putPiece(new Position(1, 2), gameModel.getTotemX());
+        board.putPiece(new Position(1, 1), Token.of(Colors.PINK, Symbol.X));
+        board.putPiece(new Position(2, 1), Token.of(Colors.PINK, Symbol.O));
+        board.putPiece(new Position(2, 3), Token.of(Colors.BLACK, Symbol.O));
+        board.putPiece(new Position(4, 2), Token.of(Colors.BLACK, Symbol.O));
+        return gameModel;
+    }
+
+    @Test
+    @DisplayName("findForcedWin() should play a win in one at once")
+    void testWinInOne() {
+        ThreatSpaceSearch search = new ThreatSpaceSearch();
+        int move = search.findForcedWin(AlphaBetaSearchTest.winInOnePosition());
+
+        assertEquals(3, MoveCodec.tokenCell(move));
+        assertEquals(1, search.getWinDepth());
+    }
+
+    @Test
+    @DisplayName("findForcedWin() should find a double threat two turns deep, confirmed by a full search")
+    void testDoubleThreat() {
+        SearchState state = doubleThreatGame().createSearchState();
+        ThreatSpaceSearch search = new ThreatSpaceSearch();
+        assertEquals(MoveCodec.NO_MOVE, search.findForcedWin(state, 1, ThreatSpaceSearch.DEFAULT_MAX_NODES));
+
+        long key = state.getKey();
+        int move = search.findForcedWin(state);
+        assertNotEquals(MoveCodec.NO_MOVE, move);
+        assertEquals(2, search.getWinDepth());
+        assertFalse(search.isAborted());
+        assertEquals(key, state.getKey());
+
+        state.make(move);
+        AlphaBetaSearch check = new AlphaBetaSearch(state);
+        check.search(2, 60_000);
+        assertEquals(-(AlphaBetaSearch.WIN_SCORE - 2), check.getScore());
+    }
+
+    @Test
+    @DisplayName("findForcedWin() should give up quietly when there is no forced win")
+    void testNoForcedWin() {
+        ThreatSpaceSearch search = new ThreatSpaceSearch();
+        assertEquals(MoveCodec.NO_MOVE, search.findForcedWin(new GameModel(8).createSearchState()));
+        assertEquals(0, search.getWinDepth());
+        assertTrue(search.getNodes() <= ThreatSpaceSearch.DEFAULT_MAX_NODES);
+    }
+
+    @Test
+    @DisplayName("The wrapper should play the forced win and otherwise let the wrapped bot play")
+    void testForcedWinStrategy() {
+        ForcedWinMoveStrategy strategy = new ForcedWinMoveStrategy(new IntelligentMoveStrategy());
+        GameModel gameModel = doubleThreatGame();
+        int move = strategy.calculatePackedMove(gameModel, 1000);
+        assertEquals(2, strategy.getLastWinDepth());
+
+        SearchState state = gameModel.createSearchState();
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        assertTrue(moves.contains(move));
+
+        GameModel start = new GameModel(6);
+        assertNotNull(strategy.calculateMove(start));
+        assertEquals(0, strategy.getLastWinDepth());
+    }
+}
@@ -0,0 +1,217 @@
+package model;
+
+import Util.AnytimeMoveStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class TimeControlTest {
+
+    /** Strategy that ignores its budget and only returns once stopped. */
+    private static class StubbornStrategy implements AnytimeMoveStrategy {
+        private volatile boolean stopped;
+
+        @Override
+        public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+            while (!stopped) {
+                Thread.onSpinWait();
+            }
+            MoveList moves = new MoveList();
+            gameModel.createSearchState().generateMoves(moves);
+            return moves.get(0);
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+        }
+
+        @Override
+        public void clearStop() {
+            stopped = false;
+        }
+
+        @Override
+        public Move calculateMove(GameModel gameModel) {
+            return MoveCodec.decode(calculatePackedMove(gameModel, 0), gameModel.getBoardSize());
+        }
+
+        @Override
+        public void play(GameModel gameModel) {
+        }
+    }
+
+    /** Strategy recording the budget it is given. */
+    private static class RecordingStrategy implements AnytimeMoveStrategy {
+        private final AnytimeMoveStrategy delegate;
+        private long lastBudget;
+
+        RecordingStrategy(AnytimeMoveStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int calculatePackedMove(GameModel gameModel, long timeLimitMillis) {
+            lastBudget = timeLimitMillis;
+            return delegate.calculatePackedMove(gameModel, timeLimitMillis);
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+
+        @Override
+        public void clearStop() {
+            delegate.clearStop();
+        }
+
+        @Override
+        public Move calculateMove(GameModel gameModel) {
+            return delegate.calculateMove(gameModel);
+        }
+
+        @Override
+        public void play(GameModel gameModel) {
+        }
+    }
+
+    @Test
+    @DisplayName("A per-move limit should leave room for the move overhead")
+    void testPerMoveBudget() {
+        TimeControl control = TimeControl.perMove(200);
+        assertEquals(200 - TimeControl.MOVE_OVERHEAD, control.budgetFor(Colors.BLACK, 16));
+        assertEquals(200, control.hardLimitFor(Colors.BLACK));
+        assertFalse(control.hasClock());
+    }
+
+    @Test
+    @DisplayName("A game clock should share the time left over the turns left and add the increment")
+    void testClockBudget() {
+        TimeControl control = TimeControl.gameClock(16_000, 100);
+        assertEquals(1_100 - TimeControl.MOVE_OVERHEAD, control.budgetFor(Colors.PINK, 16));
+
+        control.charge(Colors.PINK, 1_000);
+        assertEquals(15_100, control.getRemaining(Colors.PINK));
+        assertEquals(16_000, control.getRemaining(Colors.BLACK));
+
+        control.charge(Colors.PINK, 20_000);
+        assertTrue(control.isFlagged(Colors.PINK));
+        assertEquals(1, control.budgetFor(Colors.PINK, 4));
+
+        control.reset();
+        assertEquals(16_000, control.getRemaining(Colors.PINK));
+    }
+
+    @Test
+    @DisplayName("A player whose clock ran out should lose the game at the end of the turn")
+    void testFlaggedPlayerLoses() {
+        GameModel gameModel = new GameModel(6);
+        gameModel.setVerbose(false);
+        gameModel.setTimeControl(TimeControl.gameClock(60_000, 0));
+        gameModel.startGame();
+        gameModel.getTimeControl().charge(Colors.PINK, 61_000);
+
+        MoveList moves = new MoveList();
+        gameModel.createSearchState().generateMoves(moves);
+        new CompositeMoveCommand(gameModel, moves.get(0)).execute();
+
+        assertTrue(gameModel.isGameOver());
+        assertEquals(Colors.BLACK, gameModel.getWinner().getColor());
+    }
+
+    @Test
+    @DisplayName("A human turn should be charged to the human's clock")
+    void testHumanTurnCharged() {
+        GameModel gameModel = new GameModel(6);
+        gameModel.setVerbose(false);
+        gameModel.setTimeControl(TimeControl.gameClock(60_000, 500));
+        gameModel.startGame();
+
+        MoveList moves = new MoveList();
+        gameModel.createSearchState().generateMoves(moves);
+        new CompositeMoveCommand(gameModel, moves.get(0)).execute();
+
+        assertFalse(gameModel.isGameOver());
+        assertEquals(Colors.BLACK, gameModel.getCurrentPlayerColor());
+        long remaining = gameModel.getTimeControl().getRemaining(Colors.PINK);
+        assertTrue(remaining <= 60_500 && remaining > 50_000, remaining + " ms");
+        assertEquals(60_000, gameModel.getTimeControl().getRemaining(Colors.BLACK));
+    }
+
+    @Test
+    @DisplayName("A deep search should return within its per-move limit")
+    void testSearchWithinBudget() {
+        GameModel gameModel = new GameModel(10);
+        TimeControl control = TimeControl.perMove(150);
+        // On its own the strategy would search for ten seconds.
+        RecordingStrategy strategy = new RecordingStrategy(
+                new AlphaBetaMoveStrategy(AlphaBetaSearch.MAX_DEPTH, 10_000));
+        // The first move of the JVM also loads and compiles the search: the bound below
+        // is about the time control, not the class loader.
+        TimeControl.perMove(20).play(strategy, gameModel);
+
+        int move = control.play(strategy, gameModel);
+
+        assertEquals(150 - TimeControl.MOVE_OVERHEAD, strategy.lastBudget);
+        long limit = control.hardLimitFor(Colors.PINK) + TimeControl.MOVE_OVERHEAD;
+        assertTrue(control.getLastMoveMillis() <= limit, "took " + control.getLastMoveMillis() + " ms");
+        MoveList moves = new MoveList();
+        gameModel.createSearchState().generateMoves(moves);
+        assertTrue(moves.contains(move));
+    }
+
+    @Test
+    @DisplayName("The hard stop should interrupt a strategy that overruns its budget")
+    void testHardStop() {
+        GameModel gameModel = new GameModel(6);
+        TimeControl control = new TimeControl(TimeControl.UNLIMITED, TimeControl.UNLIMITED, 0, 100);
+
+        int move = control.play(new StubbornStrategy(), gameModel);
+
+        assertNotEquals(MoveCodec.NO_MOVE, move);
+        // The strategy never returns on its own: only the watchdog can have stopped it,
+        // and the move overhead is the time allowed to return once stopped.
+        assertTrue(control.getLastMoveMillis() >= 100);
+        assertTrue(control.getLastMoveMillis() <= 100 + TimeControl.MOVE_OVERHEAD,
+                "took " + control.getLastMoveMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("A stop sent before the move should cut every search of the move short, until cleared")
+    void testStopBeforeMove() {
+        GameModel gameModel = new GameModel(10);
+        AlphaBetaMoveStrategy delegate = new AlphaBetaMoveStrategy(AlphaBetaSearch.MAX_DEPTH, 60_000);
+        try (ForcedWinMoveStrategy strategy = new ForcedWinMoveStrategy(delegate)) {
+            strategy.setOpeningBook(OpeningBook.empty(10));
+            strategy.stop();
+            int move = strategy.calculatePackedMove(gameModel, 60_000);
+
+            // The stop outlived the threat search, so the delegate gave up before its first iteration.
+            assertEquals(1, strategy.getThreatSearch().getNodes());
+            assertEquals(0, delegate.getLastDepth());
+            MoveList moves = new MoveList();
+            gameModel.createSearchState().generateMoves(moves);
+            assertTrue(moves.contains(move));
+
+            strategy.clearStop();
+            strategy.calculatePackedMove(gameModel, 50);
+            assertTrue(delegate.getLastDepth() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("A search stopped before its first iteration should still return a legal move")
+    void testStopBeforeFirstIteration() {
+        SearchState state = new GameModel(6).createSearchState();
+        AlphaBetaSearch search = new AlphaBetaSearch(state);
+        search.stop();
+        int move = search.search(8, TimeControl.UNLIMITED);
+
+        MoveList moves = new MoveList();
+        state.generateMoves(moves);
+        assertTrue(moves.contains(move));
+    }
+}
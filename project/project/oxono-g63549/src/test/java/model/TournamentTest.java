@@ -0,0 +1,78 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class TournamentTest {
+
+    @Test
+    @DisplayName("A tournament should play every game silently and sum them up per pair and board size")
+    void testPlaysEveryGame() throws InterruptedException {
+        Tournament tournament = new Tournament(
+                List.of(Tournament.entrant("random"), Tournament.entrant("intelligent"), Tournament.entrant("forced-random")),
+                List.of(4, 6), 6, 20);
+
+        PrintStream console = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        List<Tournament.Result> results;
+        System.setOut(new PrintStream(output));
+        try {
+            results = tournament.play(2);
+        } finally {
+            System.setOut(console);
+        }
+
+        assertEquals("", output.toString());
+        assertEquals(6, results.size());
+        assertEquals("random", results.get(0).first());
+        assertEquals("intelligent", results.get(0).second());
+        assertEquals(4, results.get(0).boardSize());
+        assertEquals(6, results.get(5).boardSize());
+        for (Tournament.Result result : results) {
+            assertEquals(6, result.games());
+            assertTrue(result.averageLength() > 0);
+            assertTrue(result.movesPerSecond() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("The Elo difference and its confidence interval should follow the score")
+    void testEloDifference() {
+        Tournament.Result even = new Tournament.Result("a", "b", 6, 40, 20, 40, 1000, 1_000_000_000L);
+        assertEquals(0.5, even.score(), 1e-9);
+        assertEquals(0, even.eloDifference(), 1e-9);
+        assertEquals(-even.eloLower(), even.eloUpper(), 1e-9);
+        assertEquals(1000, even.movesPerSecond(), 1e-9);
+        assertEquals(10, even.averageLength(), 1e-9);
+
+        Tournament.Result strong = new Tournament.Result("a", "b", 6, 75, 0, 25, 1000, 1_000_000_000L);
+        assertEquals(400 * Math.log10(3), strong.eloDifference(), 1e-9);
+        assertTrue(strong.eloLower() > 0 && strong.eloLower() < strong.eloDifference());
+        assertTrue(strong.eloUpper() > strong.eloDifference());
+
+        Tournament.Result sweep = new Tournament.Result("a", "b", 6, 10, 0, 0, 100, 1_000_000L);
+        assertEquals(Double.POSITIVE_INFINITY, sweep.eloDifference());
+        assertThrows(IllegalArgumentException.class, () -> Tournament.entrant("unknown"));
+    }
+
+    @Test
+    @DisplayName("Parallel entrants should lower the number of games played at once")
+    void testDefaultThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Tournament serial = new Tournament(
+                List.of(Tournament.entrant("random"), Tournament.entrant("forced-alphabeta")), List.of(6), 1, 20);
+        assertEquals(cores, serial.defaultThreads());
+
+        Tournament parallel = new Tournament(
+                List.of(Tournament.entrant("random"), Tournament.entrant("parallel-mcts", cores)), List.of(6), 1, 20);
+        assertEquals(cores, parallel.getEntrants().get(1).threads());
+        assertEquals(1, parallel.defaultThreads());
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class TranspositionTableTest {
+
+    @Test
+    @DisplayName("The memory budget should size the table to a power of two")
+    void testCapacity() {
+        assertEquals(1 << 16, new TranspositionTable(1).getCapacity());
+        assertEquals(1 << 20, new TranspositionTable(16).getCapacity());
+        assertEquals(1 << 20, new TranspositionTable(31).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("store() and probe() should round-trip every field")
+    void testRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = MoveCodec.encode(Symbol.O, 99, 98);
+        table.store(0x1234_5678_9ABCL, 17, TranspositionTable.LOWER_BOUND, -AlphaBetaSearch.WIN_SCORE + 3, move);
+        table.store(42L, 0, TranspositionTable.EXACT, 0, MoveCodec.NO_MOVE);
+
+        long entry = table.probe(0x1234_5678_9ABCL);
+        assertEquals(17, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(-AlphaBetaSearch.WIN_SCORE + 3, TranspositionTable.score(entry));
+        assertEquals(move, TranspositionTable.move(entry));
+
+        entry = table.probe(42L);
+        assertNotEquals(TranspositionTable.MISS, entry);
+        assertEquals(MoveCodec.NO_MOVE, TranspositionTable.move(entry));
+        assertEquals(TranspositionTable.MISS, table.probe(43L));
+    }
+
+    @Test
+    @DisplayName("A deep entry should survive shallower ones of the same bucket")
+    void testDepthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.newSearch();
+        long stride = table.getCapacity() / 2;
+        table.store(1L, 8, TranspositionTable.EXACT, 5, MoveCodec.NO_MOVE);
+        table.store(1L + stride, 2, TranspositionTable.EXACT, 6, MoveCodec.NO_MOVE);
+        table.store(1L + 2 * stride, 3, TranspositionTable.EXACT, 7, MoveCodec.NO_MOVE);
+
+        assertEquals(5, TranspositionTable.score(table.probe(1L)));
+        assertEquals(TranspositionTable.MISS, table.probe(1L + stride));
+        assertEquals(7, TranspositionTable.score(table.probe(1L + 2 * stride)));
+
+        table.newSearch();
+        table.store(1L + 3 * stride, 1, TranspositionTable.EXACT, 8, MoveCodec.NO_MOVE);
+        assertEquals(TranspositionTable.MISS, table.probe(1L));
+        assertEquals(8, TranspositionTable.score(table.probe(1L + 3 * stride)));
+    }
+
+    @Test
+    @DisplayName("Hit rate and fill rate should follow probes and stores")
+    void testRates() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(7L, 1, TranspositionTable.EXACT, 0, MoveCodec.NO_MOVE);
+        table.store(7L, 2, TranspositionTable.EXACT, 0, MoveCodec.NO_MOVE);
+        table.probe(7L);
+        table.probe(8L);
+
+        assertEquals(0.5, table.getHitRate());
+        assertEquals(1.0 / table.getCapacity(), table.getFillRate());
+
+        table.clear();
+        assertEquals(0.0, table.getFillRate());
+        assertEquals(TranspositionTable.MISS, table.probe(7L));
+    }
+
+    @Test
+    @DisplayName("Entries written by concurrent threads should never be read under another key")
+    void testConcurrentAccess() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        table.newSearch();
+        long stride = table.getCapacity() / 2;
+        boolean[] mismatch = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = 1 + random.nextInt(64) * stride;
+                    table.store(key, random.nextInt(20), TranspositionTable.EXACT, (int) key, (int) (key % 1000));
+                    long entry = table.probe(1 + random.nextInt(64) * stride);
+                    if (entry != TranspositionTable.MISS
+                            && TranspositionTable.move(entry) != TranspositionTable.score(entry) % 1000) {
+                        mismatch[0] = true;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(mismatch[0]);
+        assertTrue(table.getHits() > 0);
+    }
+
+    @Test
+    @DisplayName("A search with the table should keep the result and visit fewer nodes")
+    void testSearchWithTable() {
+        SearchState state = new GameModel(6).createSearchState();
+        AlphaBetaSearch plain = new AlphaBetaSearch(state, null, null);
+        int plainMove = plain.search(5, 60_000);
+
+        TranspositionTable table = new TranspositionTable(4);
+        table.newSearch();
+        AlphaBetaSearch cached = new AlphaBetaSearch(state, table, null);
+        cached.search(5, 60_000);
+
+        assertEquals(plain.getScore(), cached.getScore());
+        assertTrue(cached.getNodes() < plain.getNodes());
+        assertTrue(table.getHitRate() > 0);
+        assertNotEquals(MoveCodec.NO_MOVE, plainMove);
+
+        SearchState win = AlphaBetaSearchTest.winInOnePosition();
+        AlphaBetaSearch search = new AlphaBetaSearch(win, table);
+        search.search(3, 60_000);
+        assertEquals(AlphaBetaSearch.WIN_SCORE - 1, search.getScore());
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares whole-board win detection with the last-move detection.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=WinDetection
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WinDetectionBenchmark {
+
+    private static final int BOARDS = 64;
+
+    @Param({"4", "6", "8", "10"})
+    private int size;
+
+    private Board[] boards;
+    private int[] lastCells;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(size);
+        boards = new Board[BOARDS];
+        lastCells = new int[BOARDS];
+        for (int i = 0; i < BOARDS; i++) {
+            Board board = new Board(size);
+            int tokens = size * size / 2;
+            int last = -1;
+            for (int placed = 0; placed < tokens; ) {
+                int cell = random.nextInt(size * size);
+                if (board.isOccupied(cell)) continue;
+                Colors colors = random.nextBoolean() ? Colors.PINK : Colors.BLACK;
+                Symbol symbol = random.nextBoolean() ? Symbol.X : Symbol.O;
+                board.putPiece(cell, new Token(colors, symbol));
+                if (GameRules.checkWin(board)) {
+                    board.removePiece(cell);
+                    continue;
+                }
+                last = cell;
+                placed++;
+            }
+            boards[i] = board;
+            lastCells[i] = last;
+        }
+    }
+
+    @Benchmark
+    public void positionScan(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(scanWithPositions(board));
+        }
+    }
+
+    @Benchmark
+    public void bitboardScan(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(GameRules.checkWin(board));
+        }
+    }
+
+    @Benchmark
+    public void lastMove(Blackhole blackhole) {
+        for (int i = 0; i < BOARDS; i++) {
+            blackhole.consume(GameRules.checkWinAt(boards[i], lastCells[i]));
+        }
+    }
+
+    /**
+     * The cell-by-cell scan GameRules used before the bitboards, kept as the baseline.
+     */
+    private static boolean scanWithPositions(Board board) {
+        int boardSize = board.getSize();
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                Position pos = new Position(i, j);
+                Piece piece = board.getPiece(pos);
+                if (piece == null || piece instanceof Totem) continue;
+                if (aligned(board, pos, 1, 0, true) || aligned(board, pos, 0, 1, true)
+                        || aligned(board, pos, 1, 0, false) || aligned(board, pos, 0, 1, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean aligned(Board board, Position start, int dx, int dy, boolean byColor) {
+        Piece startPiece = board.getPiece(start);
+        for (int step = 0; step < 4; step++) {
+            Position pos = new Position(start.x() + step * dx, start.y() + step * dy);
+            if (!board.isValidCoordinate(pos)) return false;
+            Piece piece = board.getPiece(pos);
+            if (piece == null || piece instanceof Totem) return false;
+            if (byColor ? piece.getColor() != startPiece.getColor() : piece.getSymbol() != startPiece.getSymbol()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}